@@ -0,0 +1,62 @@
+package com.kashifind.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kashifind.dto.ApiResponse;
+import com.kashifind.dto.PaginationResponse;
+import com.kashifind.dto.Song;
+import com.kashifind.service.ExternalAPIsService;
+import com.kashifind.service.UpstreamJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Serializing a /api/search response body (20 results plus pagination) with an ObjectMapper
+// built the way Spring MVC builds its own
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiResponseBenchmark {
+    
+    private ObjectMapper objectMapper;
+    private ApiResponse<Map<String, Object>> searchResponse;
+    
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<Song> results = UpstreamJson.read(
+            Fixtures.resource("fixtures/spotify-search.json").getBytes(StandardCharsets.UTF_8),
+            ExternalAPIsService::toSpotifySearchPage).items();
+        
+        Map<String, Object> data = new HashMap<>();
+        data.put("external", results);
+        data.put("database", List.of());
+        data.put("total", 812);
+        data.put("pagination", new PaginationResponse(1, 20, 812, 41));
+        data.put("query", "yoasobi");
+        searchResponse = ApiResponse.success(data);
+    }
+    
+    @Benchmark
+    public byte[] searchResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(searchResponse);
+    }
+}
@@ -0,0 +1,68 @@
+package com.kashifind.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// JMH's launcher, except results go to jmh-result.json unless -rf/-rff say otherwise, and the
+// machine they were measured on is described next to them in jmh-host.json
+public final class BenchmarkMain {
+    
+    private BenchmarkMain() {}
+    
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+        
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        String result = commandLine.getResult().orElse("jmh-result.json");
+        options.result(result);
+        
+        new Runner(options.build()).run();
+        writeHost(Path.of(result).toAbsolutePath().resolveSibling("jmh-host.json"));
+    }
+    
+    private static void writeHost(Path file) throws IOException {
+        Runtime runtime = Runtime.getRuntime();
+        Map<String, Object> host = new LinkedHashMap<>();
+        host.put("cpuModel", cpuModel());
+        host.put("availableProcessors", runtime.availableProcessors());
+        host.put("maxHeapBytes", runtime.maxMemory());
+        host.put("os", System.getProperty("os.name") + " " + System.getProperty("os.version"));
+        host.put("arch", System.getProperty("os.arch"));
+        host.put("javaVersion", System.getProperty("java.version"));
+        host.put("javaVm", System.getProperty("java.vm.name"));
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), host);
+    }
+    
+    // Linux only; elsewhere the architecture has to do
+    private static String cpuModel() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/cpuinfo"))) {
+                if (line.startsWith("model name")) {
+                    return line.substring(line.indexOf(':') + 1).strip();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not Linux
+        }
+        return System.getProperty("os.arch");
+    }
+}
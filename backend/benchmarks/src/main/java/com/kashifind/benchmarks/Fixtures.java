@@ -0,0 +1,47 @@
+package com.kashifind.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Inputs bundled under src/main/resources: response bodies shaped like the real Spotify and
+// YouTube search responses, and a lyric corpus with verses, repeated choruses and mixed scripts
+final class Fixtures {
+    
+    private Fixtures() {}
+    
+    static String resource(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing benchmark fixture: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // One text per song; # lines are comments
+    static List<String> lyricsCorpus() {
+        List<String> songs = new ArrayList<>();
+        StringBuilder song = new StringBuilder();
+        for (String line : resource("lyrics-corpus.txt").split("\n", -1)) {
+            if (line.startsWith("#")) {
+                continue;
+            }
+            if (line.equals("===")) {
+                songs.add(song.toString().strip());
+                song.setLength(0);
+            } else {
+                song.append(line).append('\n');
+            }
+        }
+        if (!song.isEmpty()) {
+            songs.add(song.toString().strip());
+        }
+        return List.copyOf(songs);
+    }
+}
@@ -0,0 +1,81 @@
+package com.kashifind.benchmarks;
+
+import com.kashifind.service.JapaneseTextProcessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// processLyrics over the whole corpus. firstSeen is lyrics never processed before: the line
+// cache is off and every line carries a counter, so even entries the cache has yet to evict
+// can't hit. cached is lyrics whose lines are all in the line cache.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JapaneseTextBenchmark {
+    
+    private static final int VARIANTS = 1024;
+    
+    private JapaneseTextProcessor uncached;
+    private JapaneseTextProcessor cached;
+    private List<String> songs;
+    private List<List<String>> variants;
+    private int next;
+    
+    @Setup
+    public void setup() throws InterruptedException {
+        uncached = ready(new JapaneseTextProcessor(0, 1, 20000, 0, new SimpleMeterRegistry()));
+        cached = ready(new JapaneseTextProcessor(20_000_000, 1, 20000, 0, new SimpleMeterRegistry()));
+        songs = Fixtures.lyricsCorpus();
+        variants = new ArrayList<>(VARIANTS);
+        for (int i = 0; i < VARIANTS; i++) {
+            String suffix = " " + i;
+            variants.add(songs.stream().map(song -> song.replace("\n", suffix + "\n") + suffix).toList());
+        }
+    }
+    
+    private static JapaneseTextProcessor ready(JapaneseTextProcessor processor) throws InterruptedException {
+        while (!processor.isReady()) {
+            Thread.sleep(10);
+        }
+        return processor;
+    }
+    
+    @TearDown
+    public void tearDown() {
+        uncached.shutdown();
+        cached.shutdown();
+    }
+    
+    @Benchmark
+    public void firstSeen(Blackhole blackhole) {
+        List<String> variant = variants.get(next);
+        next = (next + 1) % VARIANTS;
+        for (String song : variant) {
+            blackhole.consume(uncached.processLyrics(song));
+        }
+    }
+    
+    @Benchmark
+    public void cached(Blackhole blackhole) {
+        for (String song : songs) {
+            blackhole.consume(cached.processLyrics(song));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.kashifind.benchmarks;
+
+import com.kashifind.service.JapaneseTextProcessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.kashifind.service.RomajiTransliterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// toRomaji alone, over the kana readings of the corpus
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RomajiBenchmark {
+    
+    private List<String> readings;
+    
+    @Setup
+    public void setup() throws InterruptedException {
+        JapaneseTextProcessor processor = new JapaneseTextProcessor(0, 1, 20000, 0, new SimpleMeterRegistry());
+        while (!processor.isReady()) {
+            Thread.sleep(10);
+        }
+        readings = Fixtures.lyricsCorpus().stream()
+            .map(song -> processor.processLyrics(song).hiragana())
+            .toList();
+        processor.shutdown();
+    }
+    
+    @Benchmark
+    public void toRomaji(Blackhole blackhole) {
+        for (String reading : readings) {
+            blackhole.consume(RomajiTransliterator.toRomaji(reading));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.kashifind.benchmarks;
+
+import com.atilika.kuromoji.ipadic.Token;
+import com.atilika.kuromoji.ipadic.Tokenizer;
+import com.kashifind.service.ReadingTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Readings for a verse of lyrics: kuromoji's Token list (the path processLyrics used to take)
+// against ReadingTokenizer walking the Viterbi path for the reading feature only
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+    
+    static final String[] VERSE = {
+        "夢ならばどれほどよかったでしょう",
+        "未だにあなたのことを夢にみる",
+        "忘れた物を取りに帰るように",
+        "古びた思い出の埃を払う",
+        "戻らない幸せがあることを",
+        "最後にあなたが教えてくれた",
+        "言えずに隠してた昏い過去も",
+        "あなたがいなきゃ永遠に昏いまま",
+        "きっともうこれ以上 傷つくことなど",
+        "ありはしないとわかっている",
+        "私は東京へ行って、君を待っている。",
+        "I love you ラララ 2人で歩いた道",
+    };
+    
+    private ReadingTokenizer readingTokenizer;
+    private Tokenizer tokenizer;
+    
+    @Setup
+    public void setup() {
+        readingTokenizer = new ReadingTokenizer();
+        tokenizer = readingTokenizer.tokenizer();
+    }
+    
+    @Benchmark
+    public int tokens() {
+        int length = 0;
+        for (String line : VERSE) {
+            StringBuilder readings = new StringBuilder(line.length() * 2);
+            StringBuilder spoken = new StringBuilder(line.length() * 2);
+            for (Token token : tokenizer.tokenize(line)) {
+                String reading = token.getReading();
+                String value = reading == null || reading.isEmpty() || "*".equals(reading) ? token.getSurface() : reading;
+                readings.append(value);
+                if ("助詞".equals(token.getPartOfSpeechLevel1()) && ("ハ".equals(reading) || "ヘ".equals(reading))) {
+                    spoken.append("ハ".equals(reading) ? 'ワ' : 'エ');
+                } else {
+                    spoken.append(value);
+                }
+            }
+            length += readings.length() + spoken.length();
+        }
+        return length;
+    }
+    
+    @Benchmark
+    public int readingsOnly() {
+        int length = 0;
+        for (String line : VERSE) {
+            StringBuilder readings = new StringBuilder(line.length() * 2);
+            StringBuilder spoken = new StringBuilder(line.length() * 2);
+            readingTokenizer.appendReadings(line, readings, spoken);
+            length += readings.length() + spoken.length();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,63 @@
+package com.kashifind.benchmarks;
+
+import com.kashifind.dto.Video;
+import com.kashifind.service.ExternalAPIsService;
+import com.kashifind.service.UpstreamJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response bytes to result records, as ExternalAPIsService decodes them off the network buffers:
+// a 20-track Spotify search page and a 25-video YouTube search. Run with -prof gc to see the
+// allocation per decode.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpstreamMappingBenchmark {
+    
+    private static final String[] DURATIONS = {"PT3M45S", "PT4M2S", "PT58S", "PT1H2M10S", "PT10M", "P0D"};
+    
+    private byte[] spotifySearch;
+    private byte[] youtubeSearch;
+    
+    @Setup
+    public void setup() {
+        spotifySearch = Fixtures.resource("fixtures/spotify-search.json").getBytes(StandardCharsets.UTF_8);
+        youtubeSearch = Fixtures.resource("fixtures/youtube-search.json").getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Benchmark
+    public ExternalAPIsService.SearchPage spotifySearch() throws IOException {
+        return UpstreamJson.read(spotifySearch, ExternalAPIsService::toSpotifySearchPage);
+    }
+    
+    @Benchmark
+    public List<Video> youtubeSearch() throws IOException {
+        return UpstreamJson.read(youtubeSearch, ExternalAPIsService::toYouTubeResults);
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int parseYouTubeDuration() {
+        int total = 0;
+        for (String duration : DURATIONS) {
+            total += ExternalAPIsService.parseYouTubeDuration(duration);
+        }
+        return total;
+    }
+}
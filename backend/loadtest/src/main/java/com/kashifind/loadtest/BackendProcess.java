@@ -0,0 +1,105 @@
+package com.kashifind.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// The backend jar in a child JVM, configured to call the stand-ins and to keep its lyrics store
+// and catalog index in a scratch directory, so runs neither touch backend/data nor warm each
+// other up. Ready once /actuator/health/readiness says so, i.e. after the dictionary warm-up.
+final class BackendProcess implements AutoCloseable {
+    
+    private final Process process;
+    private final Path scratch;
+    private final String baseUrl;
+    
+    BackendProcess(Path jar, List<String> jvmArgs, Map<String, String> upstreamEnvironment, Path log)
+            throws IOException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalArgumentException("Backend jar not found: " + jar + " (run `mvn package -DskipTests` in backend)");
+        }
+        int port = freePort();
+        this.scratch = Files.createTempDirectory("kashifind-loadtest");
+        this.baseUrl = "http://127.0.0.1:" + port;
+        
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.toString());
+        
+        ProcessBuilder builder = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile());
+        Map<String, String> env = builder.environment();
+        env.putAll(upstreamEnvironment);
+        env.put("PORT", String.valueOf(port));
+        env.put("LYRICS_STORE_DIR", scratch.resolve("lyrics").toString());
+        env.put("CATALOG_INDEX_FILE", scratch.resolve("catalog/catalog.idx").toString());
+        // The configured per-client limit is sized for browsers, not for one driver at full rate
+        env.putIfAbsent("RATE_LIMIT_MAX_REQUESTS", String.valueOf(Integer.MAX_VALUE));
+        this.process = builder.start();
+    }
+    
+    String baseUrl() {
+        return baseUrl;
+    }
+    
+    void awaitReady(Duration timeout) throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/readiness"))
+            .timeout(Duration.ofSeconds(2))
+            .build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Backend exited with status " + process.exitValue() + " during startup");
+            }
+            try {
+                if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Backend not ready after " + timeout.toSeconds() + "s");
+    }
+    
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+        try (Stream<Path> files = Files.walk(scratch)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("Could not remove " + scratch + ": " + e.getMessage());
+        }
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
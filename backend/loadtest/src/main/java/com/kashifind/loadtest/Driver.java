@@ -0,0 +1,162 @@
+package com.kashifind.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop load: requests leave on a fixed schedule at the target rate whether or not earlier
+// ones have answered, and each is timed from when it was due rather than when it went out. A
+// backend that falls behind therefore shows up as growing latency instead of a quietly lower
+// request rate (no coordinated omission).
+final class Driver {
+    
+    enum Endpoint {
+        SEARCH("search", "GET /api/search"),
+        SONG("song", "GET /api/songs/external/{id}"),
+        YOUTUBE("youtube", "GET /api/songs/{id}/youtube"),
+        LYRICS("lyrics", "GET /api/lyrics/{id}");
+        
+        final String key;
+        final String label;
+        
+        Endpoint(String key, String label) {
+            this.key = key;
+            this.label = label;
+        }
+        
+        static Endpoint of(String key) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.key.equals(key)) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalArgumentException("Unknown endpoint in mix: " + key);
+        }
+    }
+    
+    private final String target;
+    private final Map<Endpoint, Integer> mix;
+    private final int keys;
+    private final List<String[]> songs;
+    private final Duration timeout;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final ExecutorService callbacks;
+    private final HttpClient client;
+    
+    Driver(String target, Map<Endpoint, Integer> mix, int keys, List<String[]> songs,
+           Duration timeout, int maxInFlight) {
+        this.target = target.endsWith("/") ? target.substring(0, target.length() - 1) : target;
+        this.mix = mix;
+        this.keys = keys;
+        this.songs = songs;
+        this.timeout = timeout;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.callbacks = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+            runnable -> {
+                Thread thread = new Thread(runnable, "loadtest-client");
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(callbacks)
+            .build();
+    }
+    
+    // Sends rps requests a second for the duration and waits for the stragglers
+    Map<Endpoint, LatencyRecorder> run(int rps, Duration duration) throws InterruptedException {
+        long total = (long) rps * duration.toSeconds();
+        Map<Endpoint, LatencyRecorder> recorders = new LinkedHashMap<>();
+        for (Endpoint endpoint : mix.keySet()) {
+            recorders.put(endpoint, new LatencyRecorder((int) Math.min(total, Integer.MAX_VALUE - 8)));
+        }
+        List<Endpoint> wheel = wheel();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime();
+        
+        for (long i = 0; i < total; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = wheel.get((int) (i % wheel.size()));
+            LatencyRecorder recorder = recorders.get(endpoint);
+            if (!inFlight.tryAcquire()) {
+                recorder.drop();
+                continue;
+            }
+            client.sendAsync(request(endpoint), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long micros = (System.nanoTime() - due) / 1_000;
+                    recorder.record(micros, error == null && response.statusCode() / 100 == 2);
+                    inFlight.release();
+                });
+        }
+        
+        // Everything outstanding has either answered or timed out by now
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+        return recorders;
+    }
+    
+    void close() {
+        callbacks.shutdownNow();
+    }
+    
+    // Endpoints repeated by weight and shuffled, so any second of traffic carries the mix
+    private List<Endpoint> wheel() {
+        List<Endpoint> wheel = new ArrayList<>();
+        mix.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                wheel.add(endpoint);
+            }
+        });
+        if (wheel.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no weight");
+        }
+        Collections.shuffle(wheel);
+        return wheel;
+    }
+    
+    private HttpRequest request(Endpoint endpoint) {
+        int key = ThreadLocalRandom.current().nextInt(keys);
+        String[] song = songs.get(key % songs.size());
+        String id = "lt" + key;
+        String title = encode(song[0] + " " + key);
+        String artist = encode(song[1]);
+        String path = switch (endpoint) {
+            case SEARCH -> "/api/search?q=" + encode(song[1] + " " + key) + "&page=1&limit=20";
+            case SONG -> "/api/songs/external/" + id;
+            case YOUTUBE -> "/api/songs/" + id + "/youtube?title=" + title + "&artist=" + artist;
+            case LYRICS -> "/api/lyrics/" + id + "?title=" + title + "&artist=" + artist + "&format=romaji";
+        };
+        return HttpRequest.newBuilder(URI.create(target + path))
+            .timeout(timeout)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+    }
+    
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
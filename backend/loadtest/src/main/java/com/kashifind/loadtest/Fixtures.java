@@ -0,0 +1,46 @@
+package com.kashifind.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Recorded response bodies and the lyric corpus, shared with the benchmarks module
+final class Fixtures {
+    
+    private Fixtures() {}
+    
+    static String resource(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing load test fixture: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // One text per song; # lines are comments
+    static List<String> lyricsCorpus() {
+        List<String> songs = new ArrayList<>();
+        StringBuilder song = new StringBuilder();
+        for (String line : resource("lyrics-corpus.txt").split("\n", -1)) {
+            if (line.startsWith("#")) {
+                continue;
+            }
+            if (line.equals("===")) {
+                songs.add(song.toString().strip());
+                song.setLength(0);
+            } else {
+                song.append(line).append('\n');
+            }
+        }
+        if (!song.isEmpty()) {
+            songs.add(song.toString().strip());
+        }
+        return List.copyOf(songs);
+    }
+}
@@ -0,0 +1,76 @@
+package com.kashifind.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// How long a stand-in waits before answering. Parsed from "none", "fixed:50ms",
+// "uniform:20ms:120ms" or "lognormal:80ms:400ms" (median and p99), the last being the usual
+// shape of a real API: most calls near the median with a long right tail.
+sealed interface LatencyModel {
+    
+    // z-score of the 99th percentile of a standard normal
+    double Z_99 = 2.3263;
+    
+    long nextMillis();
+    
+    static LatencyModel parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        try {
+            return switch (parts[0]) {
+                case "none" -> new Fixed(0);
+                case "fixed" -> new Fixed(millis(parts[1]));
+                case "uniform" -> new Uniform(millis(parts[1]), millis(parts[2]));
+                case "lognormal" -> LogNormal.of(millis(parts[1]), millis(parts[2]));
+                default -> throw new IllegalArgumentException("Unknown latency model: " + spec);
+            };
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Incomplete latency model: " + spec);
+        }
+    }
+    
+    // "250ms", "2s" or a bare number of milliseconds
+    static long millis(String value) {
+        String v = value.trim();
+        if (v.endsWith("ms")) {
+            return Long.parseLong(v.substring(0, v.length() - 2));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1))).toMillis();
+        }
+        return Long.parseLong(v);
+    }
+    
+    record Fixed(long millis) implements LatencyModel {
+        @Override
+        public long nextMillis() {
+            return millis;
+        }
+    }
+    
+    record Uniform(long min, long max) implements LatencyModel {
+        public Uniform {
+            if (max < min) {
+                throw new IllegalArgumentException("uniform max below min");
+            }
+        }
+        
+        @Override
+        public long nextMillis() {
+            return min == max ? min : ThreadLocalRandom.current().nextLong(min, max + 1);
+        }
+    }
+    
+    record LogNormal(double mu, double sigma) implements LatencyModel {
+        static LogNormal of(long median, long p99) {
+            if (median <= 0 || p99 < median) {
+                throw new IllegalArgumentException("lognormal needs 0 < median <= p99");
+            }
+            return new LogNormal(Math.log(median), Math.log((double) p99 / median) / Z_99);
+        }
+        
+        @Override
+        public long nextMillis() {
+            return Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.kashifind.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Latencies of one endpoint in microseconds, in an array sized up front for the whole run so
+// recording is a single slot claim. A load test takes at most a few million samples, so
+// sorting them once at the end gives exact percentiles without a histogram's bucketing.
+final class LatencyRecorder {
+    
+    private final long[] samples;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong ok = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    
+    LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+    }
+    
+    void record(long micros, boolean success) {
+        (success ? ok : failed).incrementAndGet();
+        int slot = size.getAndIncrement();
+        if (slot < samples.length) {
+            samples[slot] = micros;
+        }
+    }
+    
+    // Not sent because too many requests were already outstanding
+    void drop() {
+        dropped.incrementAndGet();
+    }
+    
+    long ok() {
+        return ok.get();
+    }
+    
+    long failed() {
+        return failed.get();
+    }
+    
+    long dropped() {
+        return dropped.get();
+    }
+    
+    // Sorted copy; call once the run has finished
+    long[] sorted() {
+        long[] copy = Arrays.copyOf(samples, Math.min(size.get(), samples.length));
+        Arrays.sort(copy);
+        return copy;
+    }
+    
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
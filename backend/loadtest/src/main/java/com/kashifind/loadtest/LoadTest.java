@@ -0,0 +1,233 @@
+package com.kashifind.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+
+// Entry point. `run` starts the stand-ins and a backend jar wired to them, warms up, drives the
+// mix at the target rate and reports; `stubs` only starts the stand-ins and prints the
+// environment to start a backend against them by hand; `drive` loads an already running backend.
+// Nothing leaves 127.0.0.1.
+public final class LoadTest {
+    
+    private static final String USAGE = """
+        Usage: java -jar target/loadtest.jar [run|stubs|drive] [options]
+
+          run      start stand-ins and the backend jar, warm up, drive load, report (default)
+          stubs    start stand-ins only and print the backend environment; Ctrl-C to stop
+          drive    drive load against --target, e.g. a backend started from `stubs` output
+
+        Load:
+          --rps N                 target request rate (default 50)
+          --duration 60s          measured run length (default 60s)
+          --warmup 15s            unmeasured load first (default 15s; 0 to skip)
+          --mix search=4,song=2,youtube=1,lyrics=3
+                                  endpoint weights (default as shown)
+          --keys N                distinct ids/queries to spread over; fewer means more cache hits (default 1000)
+          --timeout 10s           per-request timeout (default 10s)
+          --max-in-flight N       requests outstanding before new ones are dropped (default 2000)
+          --target URL            backend for `drive` (default http://localhost:3001)
+          --out FILE              JSON report (default loadtest-result.json)
+
+        Backend (run):
+          --jar FILE              backend jar (default ../target/kashifind-backend-1.0.0-exec.jar)
+          --jvm-args "ARGS"       extra JVM flags for the backend, space separated
+          --log FILE              backend output (default loadtest-backend.log)
+
+        Stand-ins (upstreams: spotify-accounts, spotify-api, spotify-lyrics, youtube, lyrics-ovh):
+          --latency [NAME=]MODEL  none | fixed:50ms | uniform:20ms:120ms | lognormal:MEDIAN:P99
+                                  without NAME applies to every upstream; repeatable
+          --error-rate [NAME=]P   share of calls answered with --error-status (default 0.01)
+          --error-status CODE     status for injected errors (default 503)
+        """;
+    
+    private LoadTest() {}
+    
+    public static void main(String[] args) throws Exception {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
+            return;
+        }
+        if (options.help) {
+            System.out.print(USAGE);
+            return;
+        }
+        
+        try (Upstreams upstreams = new Upstreams(options.latency, options.errorRates, options.errorStatus)) {
+            switch (options.mode) {
+                case "stubs" -> {
+                    System.out.println("Stand-ins running. Start the backend with:");
+                    upstreams.backendEnvironment().forEach((name, value) -> System.out.println("export " + name + "=" + value));
+                    new CountDownLatch(1).await();
+                }
+                case "drive" -> drive(options, options.target, upstreams);
+                default -> {
+                    try (BackendProcess backend = new BackendProcess(options.jar, options.jvmArgs,
+                            upstreams.backendEnvironment(), options.log)) {
+                        System.out.println("Starting backend, output in " + options.log);
+                        backend.awaitReady(Duration.ofMinutes(3));
+                        drive(options, backend.baseUrl(), upstreams);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static void drive(Options options, String target, Upstreams upstreams) throws Exception {
+        Driver driver = new Driver(target, options.mix, options.keys, upstreams.songs(),
+            options.timeout, options.maxInFlight);
+        try {
+            if (!options.warmup.isZero()) {
+                System.out.println("Warming up for " + options.warmup.toSeconds() + "s");
+                driver.run(options.rps, options.warmup);
+            }
+            Map<String, long[]> before = upstreams.counts();
+            System.out.println("Measuring " + options.rps + " req/s for " + options.duration.toSeconds() + "s");
+            Map<Driver.Endpoint, LatencyRecorder> recorders = driver.run(options.rps, options.duration);
+            
+            Map<String, long[]> during = new LinkedHashMap<>();
+            upstreams.counts().forEach((name, counts) -> {
+                long[] start = before.get(name);
+                during.put(name, new long[] {counts[0] - start[0], counts[1] - start[1]});
+            });
+            Map<String, Object> summary = Report.summarize(recorders, options.rps, options.duration, during);
+            Report.print(summary, System.out);
+            Report.write(summary, options.out);
+            System.out.println("\nReport written to " + options.out);
+        } finally {
+            driver.close();
+        }
+    }
+    
+    static final class Options {
+        String mode = "run";
+        boolean help;
+        int rps = 50;
+        Duration duration = Duration.ofSeconds(60);
+        Duration warmup = Duration.ofSeconds(15);
+        Map<Driver.Endpoint, Integer> mix = parseMix("search=4,song=2,youtube=1,lyrics=3");
+        int keys = 1000;
+        Duration timeout = Duration.ofSeconds(10);
+        int maxInFlight = 2000;
+        String target = "http://localhost:3001";
+        Path out = Path.of("loadtest-result.json");
+        Path jar = Path.of("../target/kashifind-backend-1.0.0-exec.jar");
+        List<String> jvmArgs = new ArrayList<>();
+        Path log = Path.of("loadtest-backend.log");
+        Map<String, LatencyModel> latency = new LinkedHashMap<>();
+        Map<String, Double> errorRates = new LinkedHashMap<>();
+        int errorStatus = 503;
+        
+        private Options() {
+            // Roughly what the real hosts look like from a nearby region
+            latency.put(Upstreams.SPOTIFY_ACCOUNTS, LatencyModel.parse("lognormal:60ms:250ms"));
+            latency.put(Upstreams.SPOTIFY_API, LatencyModel.parse("lognormal:80ms:400ms"));
+            latency.put(Upstreams.SPOTIFY_LYRICS, LatencyModel.parse("lognormal:120ms:600ms"));
+            latency.put(Upstreams.YOUTUBE, LatencyModel.parse("lognormal:150ms:700ms"));
+            latency.put(Upstreams.LYRICS_OVH, LatencyModel.parse("lognormal:300ms:2s"));
+            Upstreams.NAMES.forEach(name -> errorRates.put(name, 0.01));
+        }
+        
+        static Options parse(String[] args) {
+            Options options = new Options();
+            int i = 0;
+            if (args.length > 0 && !args[0].startsWith("-")) {
+                options.mode = args[i++];
+                if (!List.of("run", "stubs", "drive").contains(options.mode)) {
+                    throw new IllegalArgumentException("Unknown mode: " + options.mode);
+                }
+            }
+            while (i < args.length) {
+                String flag = args[i++];
+                if (flag.equals("--help") || flag.equals("-h")) {
+                    options.help = true;
+                    continue;
+                }
+                if (i >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + flag);
+                }
+                String value = args[i++];
+                switch (flag) {
+                    case "--rps" -> options.rps = positive(flag, Integer.parseInt(value));
+                    case "--duration" -> options.duration = seconds(value);
+                    case "--warmup" -> options.warmup = seconds(value);
+                    case "--mix" -> options.mix = parseMix(value);
+                    case "--keys" -> options.keys = positive(flag, Integer.parseInt(value));
+                    case "--timeout" -> options.timeout = Duration.ofMillis(LatencyModel.millis(value));
+                    case "--max-in-flight" -> options.maxInFlight = positive(flag, Integer.parseInt(value));
+                    case "--target" -> options.target = value;
+                    case "--out" -> options.out = Path.of(value);
+                    case "--jar" -> options.jar = Path.of(value);
+                    case "--jvm-args" -> options.jvmArgs = List.of(value.trim().split("\\s+"));
+                    case "--log" -> options.log = Path.of(value);
+                    case "--latency" -> perUpstream(value, LatencyModel::parse, options.latency);
+                    case "--error-rate" -> perUpstream(value, Options::rate, options.errorRates);
+                    case "--error-status" -> options.errorStatus = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + flag);
+                }
+            }
+            return options;
+        }
+        
+        // "NAME=VALUE" sets one upstream, a bare VALUE sets them all
+        private static <T> void perUpstream(String value, Function<String, T> parser,
+                                            Map<String, T> target) {
+            int eq = value.indexOf('=');
+            if (eq < 0) {
+                T parsed = parser.apply(value);
+                Upstreams.NAMES.forEach(name -> target.put(name, parsed));
+                return;
+            }
+            String name = value.substring(0, eq);
+            if (!Upstreams.NAMES.contains(name)) {
+                throw new IllegalArgumentException("Unknown upstream: " + name);
+            }
+            target.put(name, parser.apply(value.substring(eq + 1)));
+        }
+        
+        private static Map<Driver.Endpoint, Integer> parseMix(String value) {
+            Map<Driver.Endpoint, Integer> mix = new LinkedHashMap<>();
+            for (String part : value.split(",")) {
+                String[] pair = part.trim().split("=");
+                int weight = pair.length > 1 ? Integer.parseInt(pair[1]) : 1;
+                if (weight > 0) {
+                    mix.put(Driver.Endpoint.of(pair[0]), weight);
+                }
+            }
+            if (mix.isEmpty()) {
+                throw new IllegalArgumentException("Mix has no weight: " + value);
+            }
+            return mix;
+        }
+        
+        private static Duration seconds(String value) {
+            Duration duration = Duration.ofMillis(LatencyModel.millis(value));
+            return Duration.ofSeconds(duration.toSeconds());
+        }
+        
+        private static double rate(String value) {
+            double rate = Double.parseDouble(value);
+            if (rate < 0 || rate > 1) {
+                throw new IllegalArgumentException("Error rate must be between 0 and 1: " + value);
+            }
+            return rate;
+        }
+        
+        private static int positive(String flag, int value) {
+            if (value <= 0) {
+                throw new IllegalArgumentException(flag + " must be positive");
+            }
+            return value;
+        }
+    }
+}
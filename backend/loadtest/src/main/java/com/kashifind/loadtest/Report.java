@@ -0,0 +1,105 @@
+package com.kashifind.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Per-endpoint and overall throughput and latency percentiles, as a console table and as JSON
+// next to the run's other output. Latencies are milliseconds from when each request was due.
+final class Report {
+    
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    
+    private Report() {}
+    
+    static Map<String, Object> summarize(Map<Driver.Endpoint, LatencyRecorder> recorders, int targetRps,
+                                         Duration duration, Map<String, long[]> upstreams) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long[] all = new long[0];
+        long ok = 0;
+        long failed = 0;
+        long dropped = 0;
+        for (Map.Entry<Driver.Endpoint, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            long[] sorted = recorder.sorted();
+            endpoints.put(entry.getKey().label, row(sorted, recorder.ok(), recorder.failed(), recorder.dropped(), duration));
+            all = concat(all, sorted);
+            ok += recorder.ok();
+            failed += recorder.failed();
+            dropped += recorder.dropped();
+        }
+        Arrays.sort(all);
+        
+        Map<String, Object> stubs = new LinkedHashMap<>();
+        upstreams.forEach((name, counts) -> stubs.put(name, Map.of("served", counts[0], "injectedErrors", counts[1])));
+        
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("targetRps", targetRps);
+        summary.put("durationSeconds", duration.toSeconds());
+        summary.put("overall", row(all, ok, failed, dropped, duration));
+        summary.put("endpoints", endpoints);
+        summary.put("upstreams", stubs);
+        return summary;
+    }
+    
+    @SuppressWarnings("unchecked")
+    static void print(Map<String, Object> summary, PrintStream out) {
+        out.printf("%nTarget %s req/s for %ss%n%n", summary.get("targetRps"), summary.get("durationSeconds"));
+        out.printf("%-32s %9s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "errors", "dropped", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Map<String, Object> endpoints = (Map<String, Object>) summary.get("endpoints");
+        endpoints.forEach((label, row) -> printRow(out, label, (Map<String, Object>) row));
+        printRow(out, "all", (Map<String, Object>) summary.get("overall"));
+        
+        out.printf("%n%-32s %9s %8s%n", "upstream stand-in", "served", "errors");
+        ((Map<String, Object>) summary.get("upstreams")).forEach((name, counts) -> {
+            Map<String, Object> c = (Map<String, Object>) counts;
+            out.printf("%-32s %9d %8d%n", name, c.get("served"), c.get("injectedErrors"));
+        });
+    }
+    
+    static void write(Map<String, Object> summary, Path file) throws IOException {
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), summary);
+    }
+    
+    private static Map<String, Object> row(long[] sorted, long ok, long failed, long dropped, Duration duration) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("requests", ok + failed + dropped);
+        row.put("ok", ok);
+        row.put("errors", failed);
+        row.put("dropped", dropped);
+        row.put("throughput", Math.round(ok * 10.0 / Math.max(1, duration.toSeconds())) / 10.0);
+        Map<String, Object> latency = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            latency.put("p" + (p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p)),
+                millis(LatencyRecorder.percentile(sorted, p)));
+        }
+        latency.put("max", millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+        row.put("latencyMs", latency);
+        return row;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static void printRow(PrintStream out, String label, Map<String, Object> row) {
+        Map<String, Object> latency = (Map<String, Object>) row.get("latencyMs");
+        out.printf("%-32s %9d %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", label,
+            row.get("requests"), row.get("errors"), row.get("dropped"), row.get("throughput"),
+            latency.get("p50"), latency.get("p90"), latency.get("p99"), latency.get("p99.9"), latency.get("max"));
+    }
+    
+    private static double millis(long micros) {
+        return Math.round(micros / 100.0) / 10.0;
+    }
+    
+    private static long[] concat(long[] a, long[] b) {
+        long[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+}
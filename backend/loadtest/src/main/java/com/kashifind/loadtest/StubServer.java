@@ -0,0 +1,135 @@
+package com.kashifind.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// One local stand-in for an upstream host, bound to loopback on an ephemeral port. Every
+// request is answered by the route handler, then held back by the latency model on a timer
+// rather than a sleeping thread, so thousands of in-flight calls cost no threads. A share of
+// calls given by the error rate fail with errorStatus instead.
+final class StubServer implements AutoCloseable {
+    
+    // Builds the response body for a request, or null for 404
+    @FunctionalInterface
+    interface Route {
+        String respond(URI uri, String body) throws IOException;
+    }
+    
+    private static final String ERROR_BODY = "{\"error\":{\"status\":%d,\"message\":\"Injected by load test\"}}";
+    
+    private final String name;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ScheduledExecutorService timer;
+    private final LatencyModel latency;
+    private final double errorRate;
+    private final int errorStatus;
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    
+    StubServer(String name, LatencyModel latency, double errorRate, int errorStatus,
+               ScheduledExecutorService timer) throws IOException {
+        this.name = name;
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.timer = timer;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.handlers = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "stub-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(handlers);
+    }
+    
+    StubServer route(String method, String pathPrefix, Route route) {
+        server.createContext(pathPrefix, exchange -> {
+            if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+                reply(exchange, 405, "{}");
+                return;
+            }
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                failed.incrementAndGet();
+                delayed(exchange, errorStatus, ERROR_BODY.formatted(errorStatus));
+                return;
+            }
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            String response;
+            try {
+                response = route.respond(exchange.getRequestURI(), body);
+            } catch (RuntimeException e) {
+                reply(exchange, 500, ERROR_BODY.formatted(500));
+                return;
+            }
+            served.incrementAndGet();
+            if (response == null) {
+                delayed(exchange, 404, ERROR_BODY.formatted(404));
+            } else {
+                delayed(exchange, 200, response);
+            }
+        });
+        return this;
+    }
+    
+    StubServer start() {
+        server.start();
+        return this;
+    }
+    
+    String name() {
+        return name;
+    }
+    
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    long served() {
+        return served.get();
+    }
+    
+    long failed() {
+        return failed.get();
+    }
+    
+    private void delayed(HttpExchange exchange, int status, String body) {
+        long delay = latency.nextMillis();
+        if (delay <= 0) {
+            reply(exchange, status, body);
+        } else {
+            timer.schedule(() -> reply(exchange, status, body), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    private static void reply(HttpExchange exchange, int status, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            out.write(bytes);
+        } catch (IOException e) {
+            // Client gave up on us; nothing to answer
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+}
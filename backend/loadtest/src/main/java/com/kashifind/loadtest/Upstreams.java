@@ -0,0 +1,170 @@
+package com.kashifind.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Stand-ins for every host the backend calls, one server each, answering from the recorded
+// fixtures. Lookups by id work for any id: the answer is the fixture entry the id hashes to,
+// relabelled with that id, so the driver can spread requests over as many distinct keys as it
+// likes without the stand-ins running out of data.
+final class Upstreams implements AutoCloseable {
+    
+    static final String SPOTIFY_ACCOUNTS = "spotify-accounts";
+    static final String SPOTIFY_API = "spotify-api";
+    static final String SPOTIFY_LYRICS = "spotify-lyrics";
+    static final String YOUTUBE = "youtube";
+    static final String LYRICS_OVH = "lyrics-ovh";
+    
+    static final List<String> NAMES = List.of(SPOTIFY_ACCOUNTS, SPOTIFY_API, SPOTIFY_LYRICS, YOUTUBE, LYRICS_OVH);
+    
+    private static final String[] DURATIONS = {"PT3M45S", "PT4M2S", "PT5M18S", "PT3M9S", "PT4M40S"};
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService timer;
+    private final Map<String, StubServer> servers = new LinkedHashMap<>();
+    private final AtomicLong tokens = new AtomicLong();
+    
+    private final String spotifySearch;
+    private final List<JsonNode> spotifyTracks;
+    private final String youtubeSearch;
+    private final List<JsonNode> youtubeVideos;
+    private final List<String> lyrics;
+    
+    Upstreams(Map<String, LatencyModel> latency, Map<String, Double> errorRates, int errorStatus) throws IOException {
+        spotifySearch = Fixtures.resource("fixtures/spotify-search.json");
+        spotifyTracks = items(objectMapper.readTree(spotifySearch).path("tracks").path("items"));
+        youtubeSearch = Fixtures.resource("fixtures/youtube-search.json");
+        youtubeVideos = items(objectMapper.readTree(youtubeSearch).path("items"));
+        lyrics = Fixtures.lyricsCorpus();
+        
+        timer = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "stub-latency");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        for (String name : NAMES) {
+            servers.put(name, new StubServer(name, latency.get(name), errorRates.get(name), errorStatus, timer));
+        }
+        servers.get(SPOTIFY_ACCOUNTS)
+            .route("POST", "/api/token", (uri, body) -> token());
+        servers.get(SPOTIFY_API)
+            .route("GET", "/v1/search", (uri, body) -> spotifySearch)
+            .route("GET", "/v1/tracks/", (uri, body) -> track(lastSegment(uri)));
+        servers.get(SPOTIFY_LYRICS)
+            .route("GET", "/lyrics/v1/track/", (uri, body) -> lyrics(lastSegment(uri)));
+        servers.get(YOUTUBE)
+            .route("GET", "/youtube/v3/search", (uri, body) -> youtubeSearch)
+            .route("GET", "/youtube/v3/videos", (uri, body) -> video(queryParam(uri, "id")));
+        servers.get(LYRICS_OVH)
+            .route("GET", "/v1/", (uri, body) -> lyrics(lastSegment(uri)));
+        servers.values().forEach(StubServer::start);
+    }
+    
+    // Environment for a backend pointed at these stand-ins instead of the real hosts
+    Map<String, String> backendEnvironment() {
+        Map<String, String> env = new LinkedHashMap<>();
+        env.put("SPOTIFY_ACCOUNTS_URL", servers.get(SPOTIFY_ACCOUNTS).baseUrl());
+        env.put("SPOTIFY_API_URL", servers.get(SPOTIFY_API).baseUrl());
+        env.put("SPOTIFY_LYRICS_URL", servers.get(SPOTIFY_LYRICS).baseUrl());
+        env.put("YOUTUBE_API_URL", servers.get(YOUTUBE).baseUrl());
+        env.put("LYRICS_OVH_URL", servers.get(LYRICS_OVH).baseUrl());
+        env.put("SPOTIFY_CLIENT_ID", "loadtest");
+        env.put("SPOTIFY_CLIENT_SECRET", "loadtest");
+        env.put("YOUTUBE_API_KEY", "loadtest");
+        return env;
+    }
+    
+    // Titles and artists of the recorded tracks, for the driver to build requests from
+    List<String[]> songs() {
+        List<String[]> songs = new ArrayList<>();
+        for (JsonNode track : spotifyTracks) {
+            songs.add(new String[] {track.path("name").asText(), track.path("artists").path(0).path("name").asText()});
+        }
+        return songs;
+    }
+    
+    Map<String, long[]> counts() {
+        Map<String, long[]> counts = new LinkedHashMap<>();
+        servers.forEach((name, server) -> counts.put(name, new long[] {server.served(), server.failed()}));
+        return counts;
+    }
+    
+    private String token() {
+        return "{\"access_token\":\"loadtest-" + tokens.incrementAndGet()
+            + "\",\"token_type\":\"Bearer\",\"expires_in\":3600}";
+    }
+    
+    private String track(String id) throws IOException {
+        ObjectNode track = (ObjectNode) pick(spotifyTracks, id).deepCopy();
+        track.put("id", id);
+        return objectMapper.writeValueAsString(track);
+    }
+    
+    private String video(String id) throws IOException {
+        if (id == null || id.isEmpty()) {
+            return "{\"items\":[]}";
+        }
+        ObjectNode video = (ObjectNode) pick(youtubeVideos, id).deepCopy();
+        video.put("kind", "youtube#video");
+        video.put("id", id);
+        video.putObject("contentDetails").put("duration", DURATIONS[Math.floorMod(id.hashCode(), DURATIONS.length)]);
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("kind", "youtube#videoListResponse");
+        response.putArray("items").add(video);
+        return objectMapper.writeValueAsString(response);
+    }
+    
+    private String lyrics(String key) throws IOException {
+        return objectMapper.writeValueAsString(Map.of("lyrics", pick(lyrics, key)));
+    }
+    
+    private static <T> T pick(List<T> values, String key) {
+        return values.get(Math.floorMod(key.hashCode(), values.size()));
+    }
+    
+    private static List<JsonNode> items(JsonNode array) {
+        List<JsonNode> items = new ArrayList<>();
+        array.forEach(items::add);
+        if (items.isEmpty()) {
+            throw new IllegalStateException("Fixture has no items");
+        }
+        return List.copyOf(items);
+    }
+    
+    private static String lastSegment(URI uri) {
+        String path = uri.getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+    
+    private static String queryParam(URI uri, String name) {
+        String query = uri.getQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return pair.substring(eq + 1);
+            }
+        }
+        return null;
+    }
+    
+    @Override
+    public void close() {
+        servers.values().forEach(StubServer::close);
+        timer.shutdownNow();
+    }
+}
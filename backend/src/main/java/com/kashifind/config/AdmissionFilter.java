@@ -0,0 +1,167 @@
+package com.kashifind.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Admission control for /api/**: a lock-free GCRA token bucket per remote address, plus a cap on API
+// requests in flight; async requests hold their slot until the response completes.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionFilter extends OncePerRequestFilter {
+    
+    private static final byte[] TOO_MANY_REQUESTS = ("{\"success\":false,\"data\":null,"
+        + "\"error\":\"Too many requests\",\"message\":\"Rate limit exceeded, retry later\"}")
+        .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OVERLOADED = ("{\"success\":false,\"data\":null,"
+        + "\"error\":\"Server busy\",\"message\":\"Too many requests in progress, retry shortly\"}")
+        .getBytes(StandardCharsets.UTF_8);
+    
+    private final boolean enabled;
+    // One token per interval; a full bucket absorbs a burst of max-requests
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxConcurrent;
+    private final Cache<String, AtomicLong> clients;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rateLimited;
+    private final Counter overloaded;
+    
+    public AdmissionFilter(
+            @Value("${app.rate-limit.enabled:true}") boolean enabled,
+            @Value("${app.rate-limit.window-ms:900000}") long windowMs,
+            @Value("${app.rate-limit.max-requests:100}") int maxRequests,
+            @Value("${app.rate-limit.max-concurrent:256}") int maxConcurrent,
+            @Value("${app.rate-limit.max-clients:100000}") long maxClients,
+            MeterRegistry registry) {
+        this.enabled = enabled;
+        this.intervalNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(windowMs) / Math.max(1, maxRequests));
+        this.burstNanos = intervalNanos * (Math.max(1, maxRequests) - 1);
+        this.maxConcurrent = maxConcurrent;
+        this.clients = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMillis(windowMs))
+            .maximumSize(maxClients)
+            .build();
+        
+        this.rateLimited = Counter.builder("kashifind.admission.rejected")
+            .description("API requests refused before reaching a controller")
+            .tag("reason", "rate_limited")
+            .register(registry);
+        this.overloaded = Counter.builder("kashifind.admission.rejected")
+            .description("API requests refused before reaching a controller")
+            .tag("reason", "overloaded")
+            .register(registry);
+        Gauge.builder("kashifind.admission.in-flight", inFlight, AtomicInteger::get)
+            .description("API requests currently admitted and not yet completed")
+            .register(registry);
+        Gauge.builder("kashifind.admission.clients", clients, Cache::estimatedSize)
+            .description("Clients with a rate-limit bucket in memory")
+            .register(registry);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || "OPTIONS".equals(request.getMethod())) {
+            // CORS preflights are answered by CorsFilter and cost nothing downstream
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/api/") || path.startsWith("/api/health");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = acquire(request.getRemoteAddr());
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            reject(response, 429, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1, TOO_MANY_REQUESTS);
+            return;
+        }
+        if (inFlight.incrementAndGet() > maxConcurrent) {
+            inFlight.decrementAndGet();
+            overloaded.increment();
+            reject(response, 503, 1, OVERLOADED);
+            return;
+        }
+        
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Controllers returning Mono complete later; the slot is held until they do
+                request.getAsyncContext().addListener(new ReleaseOnComplete());
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+    
+    // Takes a token from the client's bucket; 0 when admitted, otherwise how long until one is free
+    private long acquire(String client) {
+        long now = System.nanoTime();
+        AtomicLong arrival = clients.getIfPresent(client);
+        if (arrival == null) {
+            arrival = clients.get(client, key -> new AtomicLong(now));
+        }
+        while (true) {
+            long theoretical = arrival.get();
+            long start = Math.max(theoretical, now);
+            long wait = start - burstNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(theoretical, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+    
+    private static void reject(HttpServletResponse response, int status, long retryAfterSeconds, byte[] body)
+            throws IOException {
+        response.setStatus(status);
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+    
+    private final class ReleaseOnComplete implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            inFlight.decrementAndGet();
+        }
+        
+        @Override
+        public void onTimeout(AsyncEvent event) {}
+        
+        @Override
+        public void onError(AsyncEvent event) {}
+        
+        @Override
+        public void onStartAsync(AsyncEvent event) {}
+    }
+}
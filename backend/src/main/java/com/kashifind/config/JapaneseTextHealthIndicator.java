@@ -0,0 +1,24 @@
+package com.kashifind.config;
+
+import com.kashifind.service.JapaneseTextProcessor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+// "japaneseText" in /actuator/health and the readiness group: out of service until the
+// kuromoji dictionary is loaded and warmed up, so instances only get traffic once warm
+@Component
+public class JapaneseTextHealthIndicator implements HealthIndicator {
+    
+    private final JapaneseTextProcessor japaneseProcessor;
+    
+    public JapaneseTextHealthIndicator(JapaneseTextProcessor japaneseProcessor) {
+        this.japaneseProcessor = japaneseProcessor;
+    }
+    
+    @Override
+    public Health health() {
+        Health.Builder builder = japaneseProcessor.isReady() ? Health.up() : Health.outOfService();
+        return builder.withDetails(japaneseProcessor.warmupStatus()).build();
+    }
+}
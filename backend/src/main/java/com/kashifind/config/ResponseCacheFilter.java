@@ -0,0 +1,238 @@
+package com.kashifind.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+// Caches the bytes of GET responses shared by every user, with an ETag; hits and 304s skip the controller.
+// Only 200 JSON responses that set no Cache-Control of their own are stored.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ResponseCacheFilter extends OncePerRequestFilter {
+    
+    // ttl is how long the server keeps the bytes, maxAge what browsers are told
+    private record Route(Pattern path, Duration ttl, Duration maxAge) {}
+    
+    private record CachedResponse(byte[] body, byte[] gzipped, String etag, String gzipEtag,
+                                  String contentType, String cacheControl, Duration ttl) {
+        int weight() {
+            return body.length + (gzipped == null ? 0 : gzipped.length);
+        }
+    }
+    
+    private final boolean enabled;
+    private final int gzipMinSize;
+    private final List<Route> routes;
+    private final Cache<String, CachedResponse> responses;
+    private final Counter notModified;
+    
+    public ResponseCacheFilter(
+            @Value("${app.response-cache.enabled:true}") boolean enabled,
+            @Value("${app.response-cache.max-weight:67108864}") long maxWeight,
+            @Value("${app.response-cache.gzip-min-size:1024}") int gzipMinSize,
+            @Value("${app.response-cache.songs.ttl:1h}") Duration songsTtl,
+            @Value("${app.response-cache.songs.max-age:5m}") Duration songsMaxAge,
+            @Value("${app.response-cache.lyrics.ttl:24h}") Duration lyricsTtl,
+            @Value("${app.response-cache.lyrics.max-age:1h}") Duration lyricsMaxAge,
+            @Value("${app.response-cache.search.ttl:5m}") Duration searchTtl,
+            @Value("${app.response-cache.search.max-age:1m}") Duration searchMaxAge,
+            MeterRegistry registry) {
+        this.enabled = enabled;
+        this.gzipMinSize = gzipMinSize;
+        // /api/songs/{id}/youtube, /api/lyrics/search, /api/lyrics/{id}/stream and
+        // /api/search/realtime (timestamped) are deliberately not matched
+        this.routes = List.of(
+            new Route(Pattern.compile("/api/songs/(external/)?[^/]+"), songsTtl, songsMaxAge),
+            new Route(Pattern.compile("/api/lyrics/(?!search$)[^/]+"), lyricsTtl, lyricsMaxAge),
+            new Route(Pattern.compile("/api/search(/suggestions)?"), searchTtl, searchMaxAge));
+        this.responses = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, CachedResponse>() {
+                @Override
+                public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                    return value.ttl().toNanos();
+                }
+                
+                @Override
+                public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                    return value.ttl().toNanos();
+                }
+                
+                @Override
+                public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .maximumWeight(maxWeight)
+            .<String, CachedResponse>weigher((key, value) -> key.length() + value.weight())
+            .recordStats()
+            .build();
+        
+        CaffeineCacheMetrics.monitor(registry, responses, "responses");
+        this.notModified = Counter.builder("kashifind.response-cache.not-modified")
+            .description("Conditional GETs answered with 304 from the response cache")
+            .register(registry);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod()) || route(request) == null;
+    }
+    
+    // Controllers returning Mono finish on an async dispatch; the body is captured there
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = key(request);
+        if (!isAsyncDispatch(request)) {
+            CachedResponse cached = responses.getIfPresent(key);
+            if (cached != null) {
+                send(request, response, cached);
+                return;
+            }
+        }
+        
+        HttpServletResponse responseToUse = response;
+        if (!(response instanceof ContentCachingResponseWrapper)) {
+            responseToUse = new ContentCachingResponseWrapper(response);
+        }
+        chain.doFilter(request, responseToUse);
+        if (!isAsyncStarted(request)) {
+            complete(request, key, responseToUse);
+        }
+    }
+    
+    private void complete(HttpServletRequest request, String key, HttpServletResponse response) throws IOException {
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper == null) {
+            return;
+        }
+        String contentType = wrapper.getContentType();
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || wrapper.containsHeader(HttpHeaders.CACHE_CONTROL)
+                || contentType == null || !contentType.startsWith("application/json")) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        
+        Route route = route(request);
+        CachedResponse cached = store(wrapper.getContentAsByteArray(), contentType, route);
+        responses.put(key, cached);
+        // Nothing of the buffered body has been written yet; answer from the entry instead
+        wrapper.resetBuffer();
+        send(request, (HttpServletResponse) wrapper.getResponse(), cached);
+    }
+    
+    private CachedResponse store(byte[] body, String contentType, Route route) throws IOException {
+        String hash = HexFormat.of().formatHex(sha256(body), 0, 16);
+        byte[] gzipped = body.length >= gzipMinSize ? gzip(body) : null;
+        if (gzipped != null && gzipped.length >= body.length) {
+            gzipped = null;
+        }
+        return new CachedResponse(body, gzipped, "\"" + hash + "\"", "\"" + hash + "-gz\"", contentType,
+            "public, max-age=" + route.maxAge().toSeconds(), route.ttl());
+    }
+    
+    private void send(HttpServletRequest request, HttpServletResponse response, CachedResponse cached)
+            throws IOException {
+        boolean gzip = cached.gzipped() != null && acceptsGzip(request);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cached.cacheControl());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.ETAG, gzip ? cached.gzipEtag() : cached.etag());
+        
+        // Either representation is still valid for a client holding it
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (matches(ifNoneMatch, cached.etag()) || matches(ifNoneMatch, cached.gzipEtag()))) {
+            notModified.increment();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        
+        byte[] body = gzip ? cached.gzipped() : cached.body();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+    
+    private Route route(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Route route : routes) {
+            if (route.path().matcher(path).matches()) {
+                return route;
+            }
+        }
+        return null;
+    }
+    
+    private static String key(HttpServletRequest request) {
+        String query = request.getQueryString();
+        return query == null ? request.getRequestURI() : request.getRequestURI() + "?" + query;
+    }
+    
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return accept != null && accept.contains("gzip") && !accept.contains("gzip;q=0");
+    }
+    
+    // If-None-Match is compared weakly: W/ prefixes are ignored, * matches anything
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
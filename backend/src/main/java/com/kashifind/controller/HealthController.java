@@ -1,18 +1,29 @@
 package com.kashifind.controller;
 
 import com.kashifind.dto.ApiResponse;
+import com.kashifind.service.JapaneseTextProcessor;
+import com.kashifind.service.UpstreamCache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/health")
 public class HealthController {
     
+    private final UpstreamCache upstreamCache;
+    private final JapaneseTextProcessor japaneseProcessor;
+    
+    public HealthController(UpstreamCache upstreamCache, JapaneseTextProcessor japaneseProcessor) {
+        this.upstreamCache = upstreamCache;
+        this.japaneseProcessor = japaneseProcessor;
+    }
+    
     @GetMapping
     public ResponseEntity<ApiResponse<Map<String, Object>>> health() {
         Map<String, Object> data = Map.of(
@@ -21,5 +32,11 @@ public class HealthController {
         );
         return ResponseEntity.ok(ApiResponse.success(data));
     }
+    
+    @GetMapping("/cache")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> cacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(upstreamCache.stats());
+        stats.put("lyricsLines", japaneseProcessor.lineCacheStats());
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
 }
-
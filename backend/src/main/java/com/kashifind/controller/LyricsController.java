@@ -3,9 +3,16 @@ package com.kashifind.controller;
 import com.kashifind.dto.ApiResponse;
 import com.kashifind.service.JapaneseTextProcessor;
 import com.kashifind.service.ExternalAPIsService;
+import com.kashifind.service.lyrics.LyricsSearchIndex;
+import com.kashifind.service.lyrics.LyricsStore;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.HashMap;
 import java.util.List;
@@ -15,16 +22,50 @@ import java.util.Map;
 @RequestMapping("/api/lyrics")
 public class LyricsController {
     
+    private static final int MAX_BATCH_SIZE = 500;
+    
     private final JapaneseTextProcessor japaneseProcessor;
     private final ExternalAPIsService externalAPIsService;
+    private final LyricsStore lyricsStore;
+    private final LyricsSearchIndex lyricsSearchIndex;
     
-    public LyricsController(JapaneseTextProcessor japaneseProcessor, ExternalAPIsService externalAPIsService) {
+    public LyricsController(JapaneseTextProcessor japaneseProcessor, ExternalAPIsService externalAPIsService,
+                            LyricsStore lyricsStore, LyricsSearchIndex lyricsSearchIndex) {
         this.japaneseProcessor = japaneseProcessor;
         this.externalAPIsService = externalAPIsService;
+        this.lyricsStore = lyricsStore;
+        this.lyricsSearchIndex = lyricsSearchIndex;
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> searchLyrics(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        if (q == null || q.trim().length() < 2) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Query must be at least 2 characters"));
+        }
+        
+        try {
+            // Only lyrics the backend has already fetched are searchable
+            List<Map<String, Object>> results = lyricsSearchIndex.search(q.trim(), Math.max(1, Math.min(limit, 50)));
+            
+            Map<String, Object> data = new HashMap<>();
+            data.put("results", results);
+            data.put("total", results.size());
+            data.put("indexed", lyricsSearchIndex.size());
+            data.put("query", q);
+            
+            return ResponseEntity.ok(ApiResponse.success(data));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Lyrics search failed", e.getMessage()));
+        }
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getLyrics(
+    public Mono<ResponseEntity<ApiResponse<Map<String, Object>>>> getLyrics(
             @PathVariable String id,
             @RequestParam(required = false) String title,
             @RequestParam(required = false) String artist,
@@ -33,55 +74,104 @@ public class LyricsController {
             @RequestParam(defaultValue = "false") boolean showRomaji) {
         
         if (!List.of("original", "hiragana", "romaji").contains(format)) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(ApiResponse.error("Invalid format. Must be one of: original, hiragana, romaji"));
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Invalid format. Must be one of: original, hiragana, romaji")));
         }
         
         if (title == null || artist == null) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(ApiResponse.error("Title and artist are required"));
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Title and artist are required")));
         }
         
-        try {
-            // Get lyrics from external API
-            Map<String, String> lyricsData = externalAPIsService.getLyrics(title, artist);
-            
-            if (lyricsData == null || lyricsData.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.error("Lyrics not found"));
-            }
-            
-            String originalLyrics = lyricsData.get("original");
-            if (originalLyrics == null || originalLyrics.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.error("Lyrics not found"));
-            }
-            
-            // Process lyrics if needed
-            Map<String, Object> result = new HashMap<>();
-            result.put(format, originalLyrics);
-            
-            if (showFurigana || format.equals("hiragana")) {
-                var processed = japaneseProcessor.processLyrics(originalLyrics);
-                result.put("hiragana", processed.hiragana());
-            }
-            
-            if (showRomaji || format.equals("romaji")) {
-                var processed = japaneseProcessor.processLyrics(originalLyrics);
-                result.put("romaji", processed.romaji());
-            }
-            
-            Map<String, Object> data = new HashMap<>();
-            data.put("songId", id);
-            data.put("title", title);
-            data.put("artist", artist);
-            data.put("lyrics", result);
-            
-            return ResponseEntity.ok(ApiResponse.success(data));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(ApiResponse.error("Failed to fetch lyrics", e.getMessage()));
+        // Get lyrics from external API
+        return externalAPIsService.getLyrics(title, artist)
+            // Tokenizing is CPU-bound; keep it off the HTTP client's event loop
+            .publishOn(Schedulers.parallel())
+            .map(lyricsData -> {
+                String originalLyrics = lyricsData.original();
+                
+                // Process lyrics if needed
+                Map<String, Object> result = new HashMap<>();
+                result.put(format, originalLyrics);
+                
+                boolean wantHiragana = showFurigana || format.equals("hiragana");
+                boolean wantRomaji = showRomaji || format.equals("romaji");
+                if (wantHiragana || wantRomaji) {
+                    var processed = processedLyrics(title, artist, originalLyrics, lyricsData.source());
+                    if (wantHiragana) {
+                        result.put("hiragana", processed.hiragana());
+                    }
+                    if (wantRomaji) {
+                        result.put("romaji", processed.romaji());
+                    }
+                }
+                
+                Map<String, Object> data = new HashMap<>();
+                data.put("songId", id);
+                data.put("title", title);
+                data.put("artist", artist);
+                data.put("lyrics", result);
+                
+                return ResponseEntity.ok(ApiResponse.success(data));
+            })
+            .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponse.<Map<String, Object>>error("Lyrics not found")))
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Failed to fetch lyrics", e.getMessage()))));
+    }
+    
+    // Streams lyrics as they are processed, one element per line carrying all three forms, as
+    // NDJSON or Server-Sent Events depending on the Accept header. The first line goes out as
+    // soon as it is tokenized instead of after the whole song.
+    @GetMapping(value = "/{id}/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Map<String, Object>> streamLyrics(
+            @PathVariable String id,
+            @RequestParam String title,
+            @RequestParam String artist) {
+        
+        return externalAPIsService.getLyrics(title, artist)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Lyrics not found")))
+            .flatMapMany(lyricsData -> streamLines(lyricsData.original()));
+    }
+    
+    @PostMapping(value = "/process/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Map<String, Object>> processTextStream(@RequestBody Map<String, String> request) {
+        String text = request.get("text");
+        if (text == null || text.isEmpty()) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Text is required and must be a string"));
         }
+        return streamLines(text);
+    }
+    
+    private Flux<Map<String, Object>> streamLines(String text) {
+        return japaneseProcessor.processLines(text)
+            .index((line, processed) -> {
+                Map<String, Object> element = new HashMap<>();
+                element.put("line", line);
+                element.put("original", processed.original());
+                element.put("hiragana", processed.hiragana());
+                element.put("romaji", processed.romaji());
+                return element;
+            })
+            // Tokenizing is CPU-bound; lines are produced on demand on a parallel worker
+            .subscribeOn(Schedulers.parallel());
+    }
+    
+    // Reuses the hiragana/romaji forms kept in the lyrics store, tokenizing only on first sight.
+    // The {id} path variable is the caller's word only, so the record is found and replaced by
+    // title/artist and keeps whatever Spotify track IDs it was already filed under.
+    private JapaneseTextProcessor.ProcessedLyrics processedLyrics(String title, String artist,
+                                                                  String original, String source) {
+        var stored = lyricsStore.find(title, artist, null)
+            .filter(lyrics -> lyrics.isProcessed() && original.equals(lyrics.original()));
+        if (stored.isPresent()) {
+            return new JapaneseTextProcessor.ProcessedLyrics(original, stored.get().hiragana(), stored.get().romaji());
+        }
+        
+        var processed = japaneseProcessor.processLyrics(original);
+        lyricsStore.update(title, artist,
+            new LyricsStore.StoredLyrics(original, source, processed.hiragana(), processed.romaji()));
+        return processed;
     }
     
     @PostMapping("/process")
@@ -101,6 +191,28 @@ public class LyricsController {
         }
     }
     
+    @PostMapping("/process/batch")
+    public ResponseEntity<ApiResponse<List<JapaneseTextProcessor.ProcessedLyrics>>> processBatch(
+            @RequestBody Map<String, List<String>> request) {
+        List<String> texts = request.get("texts");
+        if (texts == null || texts.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("texts is required and must be a non-empty array"));
+        }
+        if (texts.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("At most " + MAX_BATCH_SIZE + " texts per batch"));
+        }
+        
+        try {
+            List<String> normalized = texts.stream().map(text -> text == null ? "" : text).toList();
+            return ResponseEntity.ok(ApiResponse.success(japaneseProcessor.processBatch(normalized)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Failed to process texts", e.getMessage()));
+        }
+    }
+    
     @PostMapping("/furigana")
     public ResponseEntity<ApiResponse<Map<String, String>>> generateFurigana(@RequestBody Map<String, String> request) {
         String text = request.get("text");
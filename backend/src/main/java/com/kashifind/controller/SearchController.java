@@ -2,143 +2,222 @@ package com.kashifind.controller;
 
 import com.kashifind.dto.ApiResponse;
 import com.kashifind.dto.PaginationResponse;
+import com.kashifind.dto.Song;
 import com.kashifind.service.ExternalAPIsService;
+import com.kashifind.service.catalog.CatalogService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/search")
 public class SearchController {
     
+    private static final int MAX_PAGE_SIZE = 50;
+    // Far deeper than either source pages, and keeps the offsets derived from it inside an int
+    private static final int MAX_OFFSET = 1_000_000;
+    
     private final ExternalAPIsService externalAPIsService;
+    private final CatalogService catalogService;
     
-    public SearchController(ExternalAPIsService externalAPIsService) {
+    public SearchController(ExternalAPIsService externalAPIsService, CatalogService catalogService) {
         this.externalAPIsService = externalAPIsService;
+        this.catalogService = catalogService;
     }
     
     @GetMapping
-    public ResponseEntity<ApiResponse<Map<String, Object>>> search(
+    public Mono<ResponseEntity<ApiResponse<Map<String, Object>>>> search(
             @RequestParam String q,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "20") int limit) {
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) Integer year) {
+        
+        // Calculate pagination
+        int currentPage = Math.max(page, 1);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long offset = (long) (currentPage - 1) * pageSize;
+        if (offset > MAX_OFFSET) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Page is out of range")));
+        }
+        
+        return searchLocalFirst(q, (int) offset, pageSize, genre, year)
+            .map(results -> {
+                int total = results.total();
+                PaginationResponse pagination = new PaginationResponse(
+                    currentPage, pageSize, total, (int) Math.ceil((double) total / pageSize)
+                );
+                
+                Map<String, Object> data = new HashMap<>();
+                data.put("external", results.external());
+                data.put("database", results.database());
+                data.put("total", total);
+                data.put("pagination", pagination);
+                data.put("query", q);
+                
+                return cacheable(total > 0).body(ApiResponse.success(data));
+            })
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Search failed", e.getMessage()))));
+    }
+    
+    // Local catalog first; Spotify only fills what the catalog can't, continuing from where the
+    // catalog's matches run out. Spotify has no genre/year facets, so filtered searches stay local.
+    // The total is local + Spotify less the dropped duplicates on every page, so the page count
+    // doesn't change while paging.
+    private Mono<Results> searchLocalFirst(String q, int offset, int pageSize, String genre, Integer year) {
+        ExternalAPIsService.SearchPage local = catalogService.search(q, offset, pageSize, genre, year);
+        int needed = pageSize - local.items().size();
+        boolean filtered = (genre != null && !genre.isBlank()) || year != null;
+        if (filtered) {
+            return Mono.just(new Results(local.items(), List.of(), local.total()));
+        }
         
-        try {
-            // Calculate pagination
-            int offset = (page - 1) * limit;
-            int endOffset = offset + limit;
-            
-            // Search external APIs
-            List<Map<String, Object>> allResults = externalAPIsService.searchMultipleSources(q, 500);
-            
-            // Apply pagination
-            int total = allResults.size();
-            List<Map<String, Object>> paginatedResults = allResults.subList(
-                Math.min(offset, total), 
-                Math.min(endOffset, total)
-            );
-            
-            PaginationResponse pagination = new PaginationResponse(
-                page, limit, total, (int) Math.ceil((double) total / limit)
-            );
-            
-            Map<String, Object> data = new HashMap<>();
-            data.put("external", paginatedResults);
-            data.put("database", List.of()); // Empty database results
-            data.put("total", total);
-            data.put("pagination", pagination);
-            data.put("query", q);
-            
-            return ResponseEntity.ok(ApiResponse.success(data));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(ApiResponse.error("Search failed", e.getMessage()));
+        // The catalog's last few matches share a page with Spotify's first rows
+        int shared = local.total() % pageSize;
+        List<Song> sharedRows = shared == 0 || local.items().size() == shared
+            ? local.items().subList(0, shared)
+            : catalogService.search(q, local.total() - shared, shared, null, null).items();
+        int start = Math.max(0, offset - local.total());
+        return Mono.zip(
+                externalAPIsService.searchMultipleSources(q, 0, pageSize)
+                    .defaultIfEmpty(ExternalAPIsService.SearchPage.EMPTY),
+                externalAPIsService.searchMultipleSources(q, start, needed == 0 ? 0 : needed + shared)
+                    .defaultIfEmpty(ExternalAPIsService.SearchPage.EMPTY))
+            .map(pages -> {
+                ExternalAPIsService.SearchPage head = pages.getT1();
+                List<Song> headRows = withoutDuplicates(head.items(), sharedRows);
+                int dropped = head.items().size() - headRows.size();
+                return new Results(local.items(), spotifyRows(headRows, dropped, pages.getT2(), start, needed),
+                    local.total() + head.total() - dropped);
+            });
+    }
+    
+    // Spotify rows that repeat the catalog rows on their page are dropped, and the rows after them
+    // move up so pages stay full. Only duplicates in Spotify's first page of rows (the head) are
+    // dropped, at most one per shared row, so the window [start, start + needed + shared) holds
+    // every row a page needs: what's left of the head, then Spotify's rows past the head.
+    private static List<Song> spotifyRows(List<Song> headRows, int dropped, ExternalAPIsService.SearchPage window,
+                                          int start, int needed) {
+        List<Song> rows = new ArrayList<>();
+        for (int i = start; i < headRows.size() && rows.size() < needed; i++) {
+            rows.add(headRows.get(i));
+        }
+        int from = Math.max(start, headRows.size()) + dropped - start;
+        for (int i = from; i < window.items().size() && rows.size() < needed; i++) {
+            rows.add(window.items().get(i));
         }
+        return rows;
+    }
+    
+    private record Results(List<Song> database, List<Song> external, int total) {}
+    
+    // Catalog dumps usually carry Spotify IDs, so the same track can come back from both
+    private static List<Song> withoutDuplicates(List<Song> external, List<Song> local) {
+        if (local.isEmpty() || external.isEmpty()) {
+            return external;
+        }
+        Set<String> seen = new HashSet<>();
+        local.forEach(song -> seen.add(song.id()));
+        return external.stream().filter(song -> !seen.contains(song.id())).toList();
+    }
+    
+    // An empty page may only mean Spotify was unreachable, so it must not be kept by the
+    // response cache (or by browsers) for the whole TTL
+    private static ResponseEntity.BodyBuilder cacheable(boolean found) {
+        return found ? ResponseEntity.ok() : ResponseEntity.ok().cacheControl(CacheControl.noStore());
     }
     
     @GetMapping("/realtime")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> searchRealtime(
+    public Mono<ResponseEntity<ApiResponse<Map<String, Object>>>> searchRealtime(
             @RequestParam String q,
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "50") int limit) {
         
-        try {
-            // Calculate pagination
-            int offset = (page - 1) * limit;
-            int endOffset = offset + limit;
-            
-            // Search external APIs only
-            List<Map<String, Object>> allResults = externalAPIsService.searchMultipleSources(q, 500);
-            
-            // Apply pagination
-            int total = allResults.size();
-            List<Map<String, Object>> paginatedResults = allResults.subList(
-                Math.min(offset, total), 
-                Math.min(endOffset, total)
-            );
-            
-            PaginationResponse pagination = new PaginationResponse(
-                page, limit, total, (int) Math.ceil((double) total / limit)
-            );
-            
-            Map<String, Object> data = new HashMap<>();
-            data.put("external", paginatedResults);
-            data.put("database", List.of());
-            data.put("total", total);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("data", data);
-            response.put("pagination", pagination);
-            response.put("query", q);
-            response.put("timestamp", java.time.Instant.now().toString());
-            
-            return ResponseEntity.ok(ApiResponse.success(response));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(ApiResponse.error("Real-time search failed", e.getMessage()));
+        // Calculate pagination
+        int currentPage = Math.max(page, 1);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long offset = (long) (currentPage - 1) * pageSize;
+        if (offset > MAX_OFFSET) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Page is out of range")));
         }
+        
+        return searchLocalFirst(q, (int) offset, pageSize, null, null)
+            .map(results -> {
+                int total = results.total();
+                PaginationResponse pagination = new PaginationResponse(
+                    currentPage, pageSize, total, (int) Math.ceil((double) total / pageSize)
+                );
+                
+                Map<String, Object> data = new HashMap<>();
+                data.put("external", results.external());
+                data.put("database", results.database());
+                data.put("total", total);
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("data", data);
+                response.put("pagination", pagination);
+                response.put("query", q);
+                response.put("timestamp", java.time.Instant.now().toString());
+                
+                return ResponseEntity.ok(ApiResponse.success(response));
+            })
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Real-time search failed", e.getMessage()))));
     }
     
     @GetMapping("/suggestions")
-    public ResponseEntity<ApiResponse<List<Map<String, String>>>> getSuggestions(
+    public Mono<ResponseEntity<ApiResponse<List<Map<String, String>>>>> getSuggestions(
             @RequestParam String q,
             @RequestParam(defaultValue = "10") int limit) {
         
         if (q == null || q.trim().length() < 2) {
-            return ResponseEntity.ok(ApiResponse.success(List.of()));
+            return Mono.just(ResponseEntity.ok(ApiResponse.success(List.of())));
         }
         
-        try {
-            List<Map<String, Object>> results = externalAPIsService.searchMultipleSources(q.trim(), limit);
-            List<Map<String, String>> suggestions = results.stream()
-                .map(result -> {
-                    Map<String, String> suggestion = new HashMap<>();
-                    suggestion.put("title", String.valueOf(result.getOrDefault("title", "")));
-                    suggestion.put("artist", String.valueOf(result.getOrDefault("artist", "")));
-                    return suggestion;
-                })
-                .toList();
-            
-            return ResponseEntity.ok(ApiResponse.success(suggestions));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(ApiResponse.error("Failed to fetch suggestions", e.getMessage()));
-        }
+        List<Song> local = catalogService.search(q.trim(), 0, limit, null, null).items();
+        Mono<List<Song>> external = local.size() >= limit
+            ? Mono.just(List.of())
+            : externalAPIsService.searchMultipleSources(q.trim(), limit - local.size());
+        
+        return external
+            .map(results -> {
+                List<Song> combined = new ArrayList<>(local);
+                combined.addAll(withoutDuplicates(results, local));
+                List<Map<String, String>> suggestions = combined.stream()
+                    .map(song -> {
+                        Map<String, String> suggestion = new HashMap<>();
+                        suggestion.put("title", Objects.requireNonNullElse(song.title(), ""));
+                        suggestion.put("artist", Objects.requireNonNullElse(song.artist(), ""));
+                        return suggestion;
+                    })
+                    .toList();
+                
+                return cacheable(!suggestions.isEmpty()).body(ApiResponse.success(suggestions));
+            })
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Failed to fetch suggestions", e.getMessage()))));
     }
     
     @GetMapping("/genres")
     public ResponseEntity<ApiResponse<List<String>>> getGenres() {
-        // Return empty list since we don't have a database
-        return ResponseEntity.ok(ApiResponse.success(List.of()));
+        return ResponseEntity.ok(ApiResponse.success(catalogService.genres()));
     }
     
     @GetMapping("/years")
     public ResponseEntity<ApiResponse<List<Integer>>> getYears() {
-        // Return empty list since we don't have a database
-        return ResponseEntity.ok(ApiResponse.success(List.of()));
+        return ResponseEntity.ok(ApiResponse.success(catalogService.years()));
     }
 }
@@ -0,0 +1,9 @@
+package com.kashifind.dto;
+
+// Lyrics as fetched, with the name of the source that had them
+public record Lyrics(String original, String source) {
+    
+    public boolean hasText() {
+        return original != null && !original.isBlank();
+    }
+}
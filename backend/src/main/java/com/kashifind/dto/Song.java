@@ -0,0 +1,23 @@
+package com.kashifind.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// A track as the frontend renders it, whether it came from Spotify or the local catalog.
+// Absent fields are left out of the JSON rather than written as null.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Song(String id, String title, String artist, String album, String year,
+                   Integer duration, String previewUrl, String imageUrl, String externalUrl,
+                   String genre, Integer popularity, String source, Lyrics lyrics) {
+    
+    // Used by the frontend for navigation
+    @JsonProperty
+    public String externalId() {
+        return id;
+    }
+    
+    public Song withLyrics(Lyrics lyrics) {
+        return new Song(id, title, artist, album, year, duration, previewUrl, imageUrl, externalUrl,
+            genre, popularity, source, lyrics);
+    }
+}
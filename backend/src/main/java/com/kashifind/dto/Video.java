@@ -0,0 +1,50 @@
+package com.kashifind.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// A YouTube video, shaped like a Song (channel as artist, thumbnail as image) so the frontend
+// can render both alike. The derived fields are computed when the video is serialized.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Video(String id, String title, String channelTitle, String thumbnail,
+                    String publishedAt, Integer duration) {
+    
+    @JsonProperty
+    public String externalId() {
+        return id;
+    }
+    
+    @JsonProperty
+    public String artist() {
+        return channelTitle;
+    }
+    
+    @JsonProperty
+    public String imageUrl() {
+        return thumbnail;
+    }
+    
+    @JsonProperty
+    public String url() {
+        return "https://www.youtube.com/watch?v=" + id;
+    }
+    
+    @JsonProperty
+    public String album() {
+        return "YouTube Video";
+    }
+    
+    @JsonProperty
+    public String year() {
+        if (publishedAt == null) {
+            return null;
+        }
+        int dash = publishedAt.indexOf('-');
+        return dash < 0 ? publishedAt : publishedAt.substring(0, dash);
+    }
+    
+    @JsonProperty
+    public String source() {
+        return "youtube";
+    }
+}
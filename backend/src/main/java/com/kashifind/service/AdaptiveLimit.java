@@ -0,0 +1,88 @@
+package com.kashifind.service;
+
+// RTT-driven AIMD concurrency limit for one upstream call site, kept within [min, max]. The no-load
+// RTT only rises from calls made at light load, so a queue of our own never reads as a slower upstream.
+final class AdaptiveLimit {
+    
+    private static final int WINDOW = 20;
+    
+    private final int min;
+    private final int max;
+    private final double tolerance;
+    private final double backoff;
+    
+    private volatile int current;
+    
+    // Guarded by this
+    private double limit;
+    private long noLoadRtt = Long.MAX_VALUE;
+    private long windowMin = Long.MAX_VALUE;
+    private int windowSamples;
+    private long lastCut = System.nanoTime();
+    
+    AdaptiveLimit(int initial, int min, int max, double tolerance, double backoff) {
+        this.max = Math.max(1, max);
+        this.min = Math.max(1, Math.min(min, this.max));
+        this.tolerance = tolerance;
+        this.backoff = backoff;
+        this.limit = Math.max(this.min, Math.min(initial, this.max));
+        this.current = (int) limit;
+    }
+    
+    // A limit that never moves, for call sites with adaptive limiting switched off
+    static AdaptiveLimit fixed(int limit) {
+        return new AdaptiveLimit(limit, limit, limit, 1, 1);
+    }
+    
+    int current() {
+        return current;
+    }
+    
+    // A call started at startNanos came back from the upstream, with inFlight calls running
+    void onSample(long startNanos, long rttNanos, int inFlight) {
+        if (min == max) {
+            return;
+        }
+        synchronized (this) {
+            sample(startNanos, rttNanos, inFlight);
+        }
+    }
+    
+    // The upstream failed or timed out: treated as the strongest sign of overload
+    void onDrop(long startNanos) {
+        if (min == max) {
+            return;
+        }
+        synchronized (this) {
+            cut(startNanos);
+        }
+    }
+    
+    private void sample(long startNanos, long rttNanos, int inFlight) {
+        noLoadRtt = Math.min(noLoadRtt, rttNanos);
+        if (inFlight * 2 <= limit || limit <= min) {
+            windowMin = Math.min(windowMin, rttNanos);
+            if (++windowSamples >= WINDOW) {
+                noLoadRtt = windowMin;
+                windowMin = Long.MAX_VALUE;
+                windowSamples = 0;
+            }
+        }
+        
+        if (rttNanos > noLoadRtt * tolerance) {
+            cut(startNanos);
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(max, limit + 1 / limit);
+            current = (int) limit;
+        }
+    }
+    
+    private void cut(long startNanos) {
+        if (startNanos - lastCut <= 0) {
+            return;
+        }
+        lastCut = System.nanoTime();
+        limit = Math.max(min, limit * backoff);
+        current = (int) limit;
+    }
+}
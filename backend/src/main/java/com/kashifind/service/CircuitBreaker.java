@@ -0,0 +1,124 @@
+package com.kashifind.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// Count-based breaker over the outcomes of the last `window` calls. While closed every call
+// goes through; once at least minimum-calls outcomes are in the window and failure-rate of them
+// are failures, it opens and calls are refused without touching the upstream. After open-for it
+// lets half-open-calls trial calls through: if they all succeed it closes with a fresh window,
+// if any fails it opens again. The closed path is a single volatile read.
+final class CircuitBreaker {
+    
+    enum State { CLOSED, OPEN, HALF_OPEN }
+    
+    private final int window;
+    private final int minimumCalls;
+    private final double failureRate;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    
+    private volatile State state = State.CLOSED;
+    
+    // Guarded by this
+    private final boolean[] failed;
+    private int next;
+    private int recorded;
+    private int failures;
+    private long openUntil;
+    private int trialsStarted;
+    private int trialsSucceeded;
+    
+    CircuitBreaker(int window, int minimumCalls, double failureRate, Duration openFor, int halfOpenCalls) {
+        this.window = Math.max(1, window);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.window));
+        this.failureRate = failureRate;
+        this.openNanos = openFor.toNanos();
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.failed = new boolean[this.window];
+    }
+    
+    State state() {
+        return state;
+    }
+    
+    // False when the call must not reach the upstream
+    boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openUntil < 0) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialsStarted = 0;
+                trialsSucceeded = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialsStarted >= halfOpenCalls) {
+                    return false;
+                }
+                trialsStarted++;
+            }
+            return true;
+        }
+    }
+    
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialsSucceeded >= halfOpenCalls) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+    
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures >= failureRate * recorded) {
+                open();
+            }
+        }
+    }
+    
+    // The call ended without a verdict (cancelled); a trial slot it held is free again
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && trialsStarted > trialsSucceeded) {
+            trialsStarted--;
+        }
+    }
+    
+    private void record(boolean failure) {
+        if (recorded == window) {
+            if (failed[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        failed[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window;
+    }
+    
+    private void open() {
+        openUntil = System.nanoTime() + openNanos;
+        state = State.OPEN;
+    }
+    
+    private void close() {
+        Arrays.fill(failed, false);
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        state = State.CLOSED;
+    }
+}
@@ -1,223 +1,226 @@
 package com.kashifind.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
+import com.fasterxml.jackson.core.JsonParser;
+import com.kashifind.dto.Lyrics;
+import com.kashifind.dto.Song;
+import com.kashifind.dto.Video;
+import com.kashifind.service.lyrics.LyricsProviderChain;
+import com.kashifind.service.lyrics.LyricsQuery;
+import com.kashifind.service.lyrics.LyricsSearchIndex;
+import com.kashifind.service.lyrics.LyricsStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.stream.Collectors;
 
+// All upstream calls are non-blocking: methods return publishers that complete on the
+// WebClient event loop, so no request thread is parked for a Spotify/YouTube/lyrics round trip.
+// Failures degrade to empty results rather than errors, as before. Responses are decoded by
+// UpstreamJson straight into immutable records, which are cached and served as they are.
 @Service
 public class ExternalAPIsService {
     
-    @Value("${app.external-apis.spotify.client-id:}")
-    private String spotifyClientId;
+    private static final Logger log = LoggerFactory.getLogger(ExternalAPIsService.class);
     
-    @Value("${app.external-apis.spotify.client-secret:}")
-    private String spotifyClientSecret;
+    // Spotify serves at most 50 tracks per call and refuses offsets past 1000
+    private static final int SPOTIFY_WINDOW = 50;
+    private static final int SPOTIFY_MAX_OFFSET = 1000;
     
-    @Value("${app.external-apis.youtube.api-key:}")
-    private String youtubeApiKey;
+    // Overridable so load tests can point the service at local stand-ins
+    private final String spotifyApiUrl;
+    private final String youtubeApiUrl;
+    private final String youtubeApiKey;
+    private final WebClient spotifyClient;
+    private final WebClient youtubeClient;
+    private final UpstreamCache cache;
+    private final SpotifyTokenManager spotifyTokens;
+    private final LyricsProviderChain lyricsProviders;
+    private final LyricsStore lyricsStore;
+    private final LyricsSearchIndex lyricsSearchIndex;
+    private final UpstreamGuard spotifySearchCalls;
+    private final UpstreamGuard spotifyTrackCalls;
+    private final UpstreamGuard youtubeSearchCalls;
+    private final UpstreamGuard youtubeVideoCalls;
     
-    private final WebClient webClient;
-    private final ObjectMapper objectMapper;
-    private String spotifyAccessToken;
-    private long spotifyTokenExpiry = 0;
+    // Concurrent misses for the same key share one upstream call
+    private final SingleFlight<String, SearchPage> spotifySearchFlights = new SingleFlight<>();
+    private final SingleFlight<String, Song> spotifyTrackFlights = new SingleFlight<>();
+    private final SingleFlight<String, List<Video>> youtubeSearchFlights = new SingleFlight<>();
+    private final SingleFlight<String, Lyrics> lyricsFlights = new SingleFlight<>();
     
-    public ExternalAPIsService() {
-        this.webClient = WebClient.builder().build();
-        this.objectMapper = new ObjectMapper();
+    public ExternalAPIsService(UpstreamCache cache, SpotifyTokenManager spotifyTokens,
+                               LyricsProviderChain lyricsProviders, LyricsStore lyricsStore,
+                               LyricsSearchIndex lyricsSearchIndex, UpstreamGuards guards,
+                               UpstreamClients clients,
+                               @Value("${app.external-apis.spotify.api-url:https://api.spotify.com}") String spotifyApiUrl,
+                               @Value("${app.external-apis.youtube.api-url:https://www.googleapis.com}") String youtubeApiUrl,
+                               @Value("${app.external-apis.youtube.api-key:}") String youtubeApiKey) {
+        this.spotifyApiUrl = spotifyApiUrl;
+        this.youtubeApiUrl = youtubeApiUrl;
+        this.youtubeApiKey = youtubeApiKey;
+        this.spotifyClient = clients.client("spotify-api", spotifyApiUrl, spotifyTokens.isConfigured());
+        this.youtubeClient = clients.client("youtube", youtubeApiUrl, youtubeApiKey != null && !youtubeApiKey.isEmpty());
+        this.cache = cache;
+        this.spotifyTokens = spotifyTokens;
+        this.lyricsProviders = lyricsProviders;
+        this.lyricsStore = lyricsStore;
+        this.lyricsSearchIndex = lyricsSearchIndex;
+        this.spotifySearchCalls = guards.guard("spotify", "search");
+        this.spotifyTrackCalls = guards.guard("spotify", "track");
+        this.youtubeSearchCalls = guards.guard("youtube", "search");
+        this.youtubeVideoCalls = guards.guard("youtube", "videos");
     }
     
     // ========== Spotify API ==========
     
-    private String getSpotifyToken() {
-        if (spotifyAccessToken != null && System.currentTimeMillis() < spotifyTokenExpiry) {
-            return spotifyAccessToken;
+    public Mono<List<Song>> searchSpotify(String query, int limit) {
+        return searchSpotifyPage(query, 0, Math.min(limit, SPOTIFY_WINDOW)).map(SearchPage::items);
+    }
+    
+    // Serves [offset, offset + limit) from offset-aligned Spotify windows, fetching only
+    // the windows the range touches and prefetching the following window in the background.
+    public Mono<SearchPage> searchSpotifyPage(String query, int offset, int limit) {
+        if (!spotifyTokens.isConfigured() || limit <= 0) {
+            return Mono.just(SearchPage.EMPTY);
         }
         
-        if (spotifyClientId == null || spotifyClientId.isEmpty() || 
-            spotifyClientSecret == null || spotifyClientSecret.isEmpty()) {
-            return null;
+        int start = Math.max(offset, 0);
+        int end = Math.min(start + limit, SPOTIFY_MAX_OFFSET);
+        if (start >= end) {
+            // Past the deepest result Spotify will page to; still report the total
+            return spotifyWindow(query, 0).map(first -> new SearchPage(List.of(), first.total()));
         }
         
-        try {
-            String credentials = Base64.getEncoder().encodeToString(
-                (spotifyClientId + ":" + spotifyClientSecret).getBytes()
-            );
-            
-            String response = webClient.post()
-                .uri("https://accounts.spotify.com/api/token")
-                .header("Authorization", "Basic " + credentials)
-                .header("Content-Type", "application/x-www-form-urlencoded")
-                .bodyValue("grant_type=client_credentials")
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
-            
-            if (response != null) {
-                JsonNode json = objectMapper.readTree(response);
-                spotifyAccessToken = json.get("access_token").asText();
-                int expiresIn = json.get("expires_in").asInt();
-                spotifyTokenExpiry = System.currentTimeMillis() + (expiresIn - 60) * 1000; // 60s buffer
-                return spotifyAccessToken;
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to get Spotify token: " + e.getMessage());
-        }
-        return null;
+        int firstWindow = start / SPOTIFY_WINDOW;
+        int lastWindow = (end - 1) / SPOTIFY_WINDOW;
+        
+        // Windows are fetched concurrently so a page straddling two costs one round trip
+        return Flux.range(firstWindow, lastWindow - firstWindow + 1)
+            .flatMapSequential(window -> spotifyWindow(query, window))
+            .collectList()
+            .map(pages -> {
+                List<Song> items = new ArrayList<>();
+                int total = 0;
+                for (int i = 0; i < pages.size(); i++) {
+                    SearchPage page = pages.get(i);
+                    total = Math.max(total, page.total());
+                    int windowStart = (firstWindow + i) * SPOTIFY_WINDOW;
+                    int from = Math.max(start - windowStart, 0);
+                    int to = Math.min(end - windowStart, page.items().size());
+                    if (from < to) {
+                        items.addAll(page.items().subList(from, to));
+                    }
+                }
+                prefetchSpotifyWindow(query, lastWindow + 1, total);
+                return new SearchPage(items, total);
+            });
     }
     
-    public List<Map<String, Object>> searchSpotify(String query, int limit) {
-        if (spotifyClientId == null || spotifyClientId.isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        String token = getSpotifyToken();
-        if (token == null) {
-            return new ArrayList<>();
+    private void prefetchSpotifyWindow(String query, int window, int total) {
+        if ((long) window * SPOTIFY_WINDOW < Math.min(total, SPOTIFY_MAX_OFFSET)
+                && cache.spotifySearch().getIfPresent(windowKey(query, window)) == null) {
+            // Fire and forget: the result only needs to land in the cache
+            spotifyWindow(query, window).subscribe();
         }
+    }
+    
+    private Mono<SearchPage> spotifyWindow(String query, int window) {
+        String key = windowKey(query, window);
+        return Mono.justOrEmpty(cache.spotifySearch().getIfPresent(key))
+            .switchIfEmpty(spotifySearchFlights.execute(key,
+                () -> fetchSpotifySearch(query, window * SPOTIFY_WINDOW, SPOTIFY_WINDOW)
+                    .doOnNext(page -> {
+                        if (!page.items().isEmpty()) {
+                            cache.spotifySearch().put(key, page);
+                        }
+                    })));
+    }
+    
+    private static String windowKey(String query, int window) {
+        return UpstreamCache.normalize(query) + "|" + window;
+    }
+    
+    private Mono<SearchPage> fetchSpotifySearch(String query, int offset, int limit) {
+        String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
+        String url = String.format("%s/v1/search?q=%s&type=track&limit=%d&offset=%d",
+            spotifyApiUrl, encodedQuery, Math.min(limit, SPOTIFY_WINDOW), offset);
         
-        try {
-            String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
-            String url = String.format("https://api.spotify.com/v1/search?q=%s&type=track&limit=%d", 
-                encodedQuery, Math.min(limit, 50));
-            
-            String response = webClient.get()
+        return spotifyTokens.currentToken()
+            .flatMap(token -> spotifySearchCalls.call(UpstreamJson.decode(spotifyClient.get()
                 .uri(url)
                 .header("Authorization", "Bearer " + token)
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
-            
-            if (response != null) {
-                JsonNode json = objectMapper.readTree(response);
-                JsonNode tracks = json.get("tracks").get("items");
-                
-                List<Map<String, Object>> results = new ArrayList<>();
-                for (JsonNode track : tracks) {
-                    Map<String, Object> song = new HashMap<>();
-                    String trackId = track.get("id").asText();
-                    song.put("id", trackId);
-                    song.put("externalId", trackId); // For navigation
-                    song.put("title", track.get("name").asText());
-                    song.put("artist", track.get("artists").get(0).get("name").asText());
-                    song.put("album", track.get("album").get("name").asText());
-                    song.put("duration", track.get("duration_ms").asInt() / 1000);
-                    song.put("previewUrl", track.has("preview_url") ? track.get("preview_url").asText() : null);
-                    song.put("imageUrl", track.get("album").get("images").get(0).get("url").asText());
-                    song.put("externalUrl", track.get("external_urls").get("spotify").asText());
-                    song.put("source", "spotify");
-                    // Add year if available
-                    if (track.get("album").has("release_date")) {
-                        String releaseDate = track.get("album").get("release_date").asText();
-                        song.put("year", releaseDate.split("-")[0]);
-                    }
-                    results.add(song);
-                }
-                return results;
-            }
-        } catch (Exception e) {
-            System.err.println("Spotify search error: " + e.getMessage());
-        }
-        return new ArrayList<>();
+                .retrieve(),
+                ExternalAPIsService::toSpotifySearchPage)))
+            .onErrorResume(e -> {
+                log.warn("Spotify search error: {}", e.getMessage());
+                return Mono.empty();
+            })
+            .defaultIfEmpty(SearchPage.EMPTY);
+    }
+    
+    // Reads a /v1/search response; public so the benchmarks module can drive it from fixtures
+    public static SearchPage toSpotifySearchPage(JsonParser parser) throws IOException {
+        return UpstreamJson.spotifySearchPage(parser, SPOTIFY_MAX_OFFSET);
     }
     
-    public Map<String, Object> getSpotifyTrackDetails(String trackId) {
-        String token = getSpotifyToken();
-        if (token == null) {
-            return new HashMap<>();
+    // Completes empty when Spotify isn't configured or doesn't know the track. Tracks are
+    // immutable, so cached ones are handed out as they are.
+    public Mono<Song> getSpotifyTrackDetails(String trackId) {
+        String id = trackId.trim();
+        Song cached = cache.spotifyTracks().getIfPresent(id);
+        if (cached != null) {
+            return Mono.just(cached);
         }
         
-        try {
-            String response = webClient.get()
-                .uri("https://api.spotify.com/v1/tracks/" + trackId)
+        return spotifyTrackFlights.execute(id, () -> fetchSpotifyTrackDetails(id)
+            .doOnNext(song -> cache.spotifyTracks().put(id, song)));
+    }
+    
+    private Mono<Song> fetchSpotifyTrackDetails(String trackId) {
+        return spotifyTokens.currentToken()
+            .flatMap(token -> spotifyTrackCalls.call(UpstreamJson.decode(spotifyClient.get()
+                .uri(spotifyApiUrl + "/v1/tracks/" + trackId)
                 .header("Authorization", "Bearer " + token)
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
-            
-            if (response != null) {
-                JsonNode track = objectMapper.readTree(response);
-                Map<String, Object> song = new HashMap<>();
-                song.put("id", track.get("id").asText());
-                song.put("title", track.get("name").asText());
-                song.put("artist", track.get("artists").get(0).get("name").asText());
-                song.put("album", track.get("album").get("name").asText());
-                song.put("year", track.get("album").get("release_date").asText().split("-")[0]);
-                song.put("duration", track.get("duration_ms").asInt() / 1000);
-                song.put("previewUrl", track.has("preview_url") ? track.get("preview_url").asText() : null);
-                song.put("imageUrl", track.get("album").get("images").get(0).get("url").asText());
-                song.put("externalUrl", track.get("external_urls").get("spotify").asText());
-                return song;
-            }
-        } catch (Exception e) {
-            System.err.println("Spotify track details error: " + e.getMessage());
-        }
-        return new HashMap<>();
+                .retrieve(),
+                UpstreamJson::spotifyTrack)))
+            .onErrorResume(e -> {
+                log.warn("Spotify track details error: {}", e.getMessage());
+                return Mono.empty();
+            });
     }
     
     // ========== YouTube API ==========
     
-    public Map<String, Object> getYouTubeVideoDetails(String videoId) {
+    // Completes empty when YouTube isn't configured or has no such video
+    public Mono<Video> getYouTubeVideoDetails(String videoId) {
         if (youtubeApiKey == null || youtubeApiKey.isEmpty()) {
-            return new HashMap<>();
+            return Mono.empty();
         }
         
-        try {
-            String url = String.format(
-                "https://www.googleapis.com/youtube/v3/videos?part=snippet,contentDetails&id=%s&key=%s",
-                videoId, youtubeApiKey
-            );
-            
-            String response = webClient.get()
+        String url = String.format(
+            "%s/youtube/v3/videos?part=snippet,contentDetails&id=%s&key=%s",
+            youtubeApiUrl, videoId, youtubeApiKey
+        );
+        
+        return youtubeVideoCalls.call(UpstreamJson.decode(youtubeClient.get()
                 .uri(url)
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
-            
-            if (response != null) {
-                JsonNode json = objectMapper.readTree(response);
-                JsonNode items = json.get("items");
-                
-                if (items.size() > 0) {
-                    JsonNode item = items.get(0);
-                    JsonNode snippet = item.get("snippet");
-                    Map<String, Object> video = new HashMap<>();
-                    video.put("id", videoId);
-                    video.put("externalId", videoId);
-                    video.put("title", snippet.get("title").asText());
-                    video.put("artist", snippet.get("channelTitle").asText());
-                    video.put("channelTitle", snippet.get("channelTitle").asText());
-                    video.put("imageUrl", snippet.get("thumbnails").get("high").get("url").asText());
-                    video.put("thumbnail", snippet.get("thumbnails").get("high").get("url").asText());
-                    video.put("publishedAt", snippet.get("publishedAt").asText());
-                    video.put("url", "https://www.youtube.com/watch?v=" + videoId);
-                    video.put("source", "youtube");
-                    video.put("album", "YouTube Video");
-                    video.put("year", snippet.get("publishedAt").asText().split("-")[0]);
-                    if (item.has("contentDetails")) {
-                        String duration = item.get("contentDetails").get("duration").asText();
-                        // Parse ISO 8601 duration (e.g., PT3M45S)
-                        video.put("duration", parseYouTubeDuration(duration));
-                    }
-                    return video;
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("YouTube video details error: " + e.getMessage());
-        }
-        return new HashMap<>();
+                .retrieve(),
+                UpstreamJson::youtubeVideo))
+            .onErrorResume(e -> {
+                log.warn("YouTube video details error: {}", e.getMessage());
+                return Mono.empty();
+            });
     }
     
-    private int parseYouTubeDuration(String duration) {
+    public static int parseYouTubeDuration(String duration) {
         // Parse ISO 8601 duration like PT3M45S to seconds
         try {
             int seconds = 0;
@@ -245,157 +248,114 @@ public class ExternalAPIsService {
             
             return seconds;
         } catch (Exception e) {
-            System.err.println("Error parsing YouTube duration: " + duration);
+            log.warn("Error parsing YouTube duration: {}", duration);
             return 0;
         }
     }
     
-    public List<Map<String, Object>> searchYouTube(String query, int limit) {
+    public Mono<List<Video>> searchYouTube(String query, int limit) {
         if (youtubeApiKey == null || youtubeApiKey.isEmpty()) {
-            System.err.println("YouTube API key is not configured");
-            return new ArrayList<>();
+            log.debug("YouTube API key is not configured");
+            return Mono.just(List.of());
         }
         
-        try {
-            String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
-            // Use order=relevance to get most relevant results first
-            String url = String.format(
-                "https://www.googleapis.com/youtube/v3/search?part=snippet&q=%s&type=video&maxResults=%d&order=relevance&key=%s",
-                encodedQuery, Math.min(limit, 50), youtubeApiKey
-            );
-            
-            String response = webClient.get()
-                .uri(url)
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
-            
-            if (response != null) {
-                JsonNode json = objectMapper.readTree(response);
-                
-                // Check for API errors
-                if (json.has("error")) {
-                    JsonNode error = json.get("error");
-                    System.err.println("YouTube API error: " + error.get("message").asText());
-                    return new ArrayList<>();
-                }
-                
-                JsonNode items = json.get("items");
-                if (items == null || !items.isArray() || items.size() == 0) {
-                    System.err.println("YouTube search returned no items for query: " + query);
-                    System.err.println("Full YouTube API response: " + json.toString());
-                    return new ArrayList<>();
-                }
-                
-                System.out.println("✅ YouTube search found " + items.size() + " results for query: " + query);
-                
-                List<Map<String, Object>> results = new ArrayList<>();
-                for (JsonNode item : items) {
-                    Map<String, Object> video = new HashMap<>();
-                    JsonNode snippet = item.get("snippet");
-                    String videoId = item.get("id").get("videoId").asText();
-                    video.put("id", videoId);
-                    video.put("externalId", videoId); // For navigation
-                    video.put("title", snippet.get("title").asText());
-                    video.put("artist", snippet.get("channelTitle").asText()); // Use channelTitle as artist
-                    video.put("channelTitle", snippet.get("channelTitle").asText());
-                    // Use thumbnail as imageUrl for consistency
-                    video.put("imageUrl", snippet.get("thumbnails").get("medium").get("url").asText());
-                    video.put("thumbnail", snippet.get("thumbnails").get("medium").get("url").asText());
-                    video.put("publishedAt", snippet.get("publishedAt").asText());
-                    video.put("url", "https://www.youtube.com/watch?v=" + videoId);
-                    video.put("source", "youtube");
-                    // Add defaults for missing fields
-                    video.put("album", "YouTube Video");
-                    video.put("year", snippet.get("publishedAt").asText().split("-")[0]);
-                    results.add(video);
-                }
-                return results;
-            }
-        } catch (Exception e) {
-            System.err.println("YouTube search error: " + e.getMessage());
+        String key = UpstreamCache.normalize(query) + "|" + Math.min(limit, 50);
+        List<Video> cached = cache.youtubeSearch().getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
         }
-        return new ArrayList<>();
+        
+        return youtubeSearchFlights.execute(key, () -> fetchYouTubeSearch(query, limit)
+            .doOnNext(results -> {
+                if (!results.isEmpty()) {
+                    cache.youtubeSearch().put(key, results);
+                }
+            }));
+    }
+    
+    public boolean isYouTubeSearchCached(String query, int limit) {
+        String key = UpstreamCache.normalize(query) + "|" + Math.min(limit, 50);
+        return cache.youtubeSearch().getIfPresent(key) != null;
+    }
+    
+    private Mono<List<Video>> fetchYouTubeSearch(String query, int limit) {
+        String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
+        // Use order=relevance to get most relevant results first
+        String url = String.format(
+            "%s/youtube/v3/search?part=snippet&q=%s&type=video&maxResults=%d&order=relevance&key=%s",
+            youtubeApiUrl, encodedQuery, Math.min(limit, 50), youtubeApiKey
+        );
+        
+        return youtubeSearchCalls.call(UpstreamJson.decode(youtubeClient.get()
+                .uri(url)
+                .retrieve(),
+                ExternalAPIsService::toYouTubeResults))
+            .doOnNext(results -> log.debug("YouTube search found {} results for query: {}", results.size(), query))
+            // Failures are already counted in kashifind.upstream.requests
+            .onErrorResume(e -> {
+                log.debug("YouTube search error for query {}: {}", query, e.getMessage());
+                return Mono.empty();
+            })
+            .defaultIfEmpty(List.of());
+    }
+    
+    // Reads a /youtube/v3/search response; public for the benchmarks module
+    public static List<Video> toYouTubeResults(JsonParser parser) throws IOException {
+        return List.copyOf(UpstreamJson.youtubeSearch(parser));
     }
     
     // ========== Lyrics APIs ==========
     
-    public Map<String, String> getLyrics(String songTitle, String artist, String spotifyTrackId) {
-        // Try Spotify Lyrics API first (if track ID provided)
-        if (spotifyTrackId != null && !spotifyTrackId.isEmpty()) {
-            try {
-                String token = getSpotifyToken();
-                if (token != null) {
-                    // Try Spotify's lyrics endpoint (available in some regions)
-                    // Note: This endpoint may not be publicly available in all regions
-                    String lyricsUrl = String.format("https://spclient.wg.spotify.com/lyrics/v1/track/%s", spotifyTrackId);
-                    
-                    try {
-                        String response = webClient.get()
-                            .uri(lyricsUrl)
-                            .header("Authorization", "Bearer " + token)
-                            .retrieve()
-                            .bodyToMono(String.class)
-                            .block();
-                        
-                        if (response != null) {
-                            JsonNode json = objectMapper.readTree(response);
-                            if (json.has("lyrics")) {
-                                Map<String, String> result = new HashMap<>();
-                                result.put("original", json.get("lyrics").asText());
-                                result.put("source", "spotify");
-                                return result;
-                            }
-                        }
-                    } catch (Exception e) {
-                        // Spotify lyrics endpoint may not be available, try alternative
-                    }
-                }
-            } catch (Exception e) {
-                // Continue to next source
-            }
+    // Completes empty when no source has lyrics for the song
+    public Mono<Lyrics> getLyrics(String songTitle, String artist, String spotifyTrackId) {
+        String key = UpstreamCache.normalize(artist) + "|" + UpstreamCache.normalize(songTitle)
+            + "|" + (spotifyTrackId != null ? spotifyTrackId.trim() : "");
+        Lyrics cached = cache.lyrics().getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
         }
         
-        // Try lyrics.ovh (free, no API key needed)
-        try {
-            String url = String.format("https://api.lyrics.ovh/v1/%s/%s", 
-                encodeURIComponent(artist), encodeURIComponent(songTitle));
-            
-            String response = webClient.get()
-                .uri(url)
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
-            
-            if (response != null) {
-                JsonNode json = objectMapper.readTree(response);
-                if (json.has("lyrics") && !json.get("lyrics").asText().isEmpty()) {
-                    Map<String, String> result = new HashMap<>();
-                    result.put("original", json.get("lyrics").asText());
-                    result.put("source", "lyrics.ovh");
-                    return result;
-                }
-            }
-        } catch (Exception e) {
-            // Continue to next source
+        // Lyrics almost never change, so the on-disk store answers before any network call
+        Optional<LyricsStore.StoredLyrics> stored = lyricsStore.find(songTitle, artist, spotifyTrackId);
+        if (stored.isPresent()) {
+            Lyrics lyrics = new Lyrics(stored.get().original(),
+                Objects.requireNonNullElse(stored.get().source(), "store"));
+            cache.lyrics().put(key, lyrics);
+            return Mono.just(lyrics);
         }
         
-        return new HashMap<>();
+        return lyricsFlights.execute(key, () -> fetchLyrics(songTitle, artist, spotifyTrackId)
+            .doOnNext(lyrics -> {
+                cache.lyrics().put(key, lyrics);
+                lyricsStore.put(songTitle, artist, spotifyTrackId,
+                    new LyricsStore.StoredLyrics(lyrics.original(), lyrics.source(), null, null));
+                lyricsSearchIndex.add(songTitle, artist, spotifyTrackId, lyrics.original());
+            }));
+    }
+    
+    private Mono<Lyrics> fetchLyrics(String songTitle, String artist, String spotifyTrackId) {
+        // Spotify's lyrics endpoint and lyrics.ovh are hedged rather than tried strictly in turn
+        return lyricsProviders.fetch(new LyricsQuery(songTitle, artist, spotifyTrackId));
     }
     
     // Overload for backward compatibility
-    public Map<String, String> getLyrics(String songTitle, String artist) {
+    public Mono<Lyrics> getLyrics(String songTitle, String artist) {
         return getLyrics(songTitle, artist, null);
     }
     
     // ========== Combined Search ==========
     
-    public List<Map<String, Object>> searchMultipleSources(String query, int limit) {
+    public Mono<List<Song>> searchMultipleSources(String query, int limit) {
         // ONLY use Spotify for search results - no YouTube
         return searchSpotify(query, limit);
     }
     
-    private String encodeURIComponent(String s) {
-        return URLEncoder.encode(s, StandardCharsets.UTF_8);
+    public Mono<SearchPage> searchMultipleSources(String query, int offset, int limit) {
+        return searchSpotifyPage(query, offset, limit);
+    }
+    
+    // One page of search results plus the upstream total (capped at what Spotify will page to)
+    public record SearchPage(List<Song> items, int total) {
+        public static final SearchPage EMPTY = new SearchPage(List.of(), 0);
     }
 }
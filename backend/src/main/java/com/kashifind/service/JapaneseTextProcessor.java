@@ -1,22 +1,148 @@
 package com.kashifind.service;
 
-import com.atilika.kuromoji.ipadic.Token;
-import com.atilika.kuromoji.ipadic.Tokenizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
-import java.util.HashMap;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 @Service
 public class JapaneseTextProcessor {
     
-    private final Tokenizer tokenizer;
+    private static final Logger log = LoggerFactory.getLogger(JapaneseTextProcessor.class);
+    
+    // Loading IPADIC takes seconds, so it happens on the pool while the rest of the context starts.
+    // A synthetic corpus is then run through so the first real lines aren't interpreted code;
+    // readiness (JapaneseTextHealthIndicator) waits for both. Lines arriving earlier wait for
+    // the dictionary.
+    private final CompletableFuture<ReadingTokenizer> tokenizer;
+    private final CompletableFuture<Void> warmup;
+    private final int warmupIterations;
+    private final long createdAt = System.nanoTime();
+    private volatile long dictionaryLoadMs = -1;
+    private volatile long warmupMs = -1;
+    // Choruses repeat within a song and common lines across songs, so readings are memoized
+    // per line; weighed in characters (line + hiragana + romaji)
+    private final Cache<String, ProcessedLyrics> lineCache;
+    // Batch requests and large documents are spread over this pool. Kuromoji's Tokenizer is
+    // immutable and thread-safe, so every worker shares the one instance and its dictionary.
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    // Only lines missing from the line cache reach kuromoji; its hits and misses are
+    // cache.gets{cache=lyrics-lines}
+    private final Timer tokenizeTimer;
+    private final Counter tokenizedCharacters;
     private static final Pattern JAPANESE_PATTERN = Pattern.compile("[\\p{IsHiragana}\\p{IsKatakana}\\p{IsHan}]");
+    // Kanji, kana, small tsu, long vowels, particles, Latin, digits and punctuation
+    private static final String[] WARMUP_LINES = {
+        "夢ならばどれほどよかったでしょう",
+        "未だにあなたのことを夢にみる",
+        "私は東京へ行って、君を待っている。",
+        "きっともうこれ以上 傷つくことなど",
+        "ずっと一緒にいたかった",
+        "ラーメンとコーヒーとヴァイオリン",
+        "I love you 2人で歩いた帰り道",
+        "ちょっと待ってっていったじゃない！",
+        "風に吹かれて、花びらが舞う。",
+        "「さよなら」なんて言わないで",
+    };
+    
+    public JapaneseTextProcessor(
+            @Value("${app.japanese.line-cache.max-weight:20000000}") long lineCacheMaxWeight,
+            @Value("${app.japanese.parallelism:0}") int parallelism,
+            @Value("${app.japanese.parallel-threshold:20000}") int parallelThreshold,
+            @Value("${app.japanese.warmup-iterations:300}") int warmupIterations,
+            MeterRegistry registry) {
+        this.parallelThreshold = parallelThreshold;
+        this.warmupIterations = warmupIterations;
+        this.pool = new ForkJoinPool(
+            parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+            forkJoinPool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("japanese-text-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        this.lineCache = Caffeine.newBuilder()
+            .maximumWeight(lineCacheMaxWeight)
+            .<String, ProcessedLyrics>weigher((line, processed) ->
+                line.length() + processed.hiragana().length() + processed.romaji().length())
+            .recordStats()
+            .build();
+        this.tokenizeTimer = Timer.builder("kashifind.text.tokenize")
+            .description("Kuromoji tokenization and romanization of one lyric line")
+            .register(registry);
+        this.tokenizedCharacters = Counter.builder("kashifind.text.characters")
+            .description("Characters run through kuromoji")
+            .baseUnit("characters")
+            .register(registry);
+        CaffeineCacheMetrics.monitor(registry, lineCache, "lyrics-lines");
+        new ExecutorServiceMetrics(pool, "japanese-text", Tags.empty()).bindTo(registry);
+        this.tokenizer = CompletableFuture.supplyAsync(this::loadTokenizer, pool);
+        this.warmup = tokenizer.thenAcceptAsync(this::warmUp, pool);
+        warmup.exceptionally(e -> {
+            log.warn("Japanese text processing unavailable: {}", e.getMessage());
+            return null;
+        });
+    }
+    
+    private ReadingTokenizer loadTokenizer() {
+        long started = System.nanoTime();
+        ReadingTokenizer loaded = new ReadingTokenizer();
+        dictionaryLoadMs = (System.nanoTime() - started) / 1_000_000;
+        return loaded;
+    }
+    
+    private void warmUp(ReadingTokenizer loaded) {
+        long started = System.nanoTime();
+        for (int i = 0; i < warmupIterations; i++) {
+            for (String line : WARMUP_LINES) {
+                tokenizeLine(loaded, line);
+            }
+        }
+        // Once through the cached path too, then drop the lines so the cache starts out empty
+        processLyrics(String.join("\n", WARMUP_LINES));
+        lineCache.invalidateAll(List.of(WARMUP_LINES));
+        warmupMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Japanese text processing ready in {}ms (dictionary {}ms, warm-up {}ms)",
+            (System.nanoTime() - createdAt) / 1_000_000, dictionaryLoadMs, warmupMs);
+    }
+    
+    public boolean isReady() {
+        return warmup.isDone() && !warmup.isCompletedExceptionally();
+    }
     
-    public JapaneseTextProcessor() {
-        this.tokenizer = new Tokenizer.Builder().build();
+    public Map<String, Object> warmupStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", warmup.isCompletedExceptionally() ? "failed"
+            : warmup.isDone() ? "ready"
+            : tokenizer.isDone() ? "warming"
+            : "loading");
+        status.put("dictionaryLoadMs", dictionaryLoadMs);
+        status.put("warmupMs", warmupMs);
+        status.put("warmupLines", warmupIterations * WARMUP_LINES.length);
+        return status;
     }
     
     public boolean containsJapanese(String text) {
@@ -28,39 +154,133 @@ public class JapaneseTextProcessor {
             return new ProcessedLyrics("", "", "");
         }
         
-        List<Token> tokens = tokenizer.tokenize(text);
-        StringBuilder hiragana = new StringBuilder();
-        StringBuilder romaji = new StringBuilder();
+        // Lines are independent, so a large document is tokenized across the pool
+        List<String> lines = splitLines(text);
+        List<ProcessedLyrics> processed = text.length() >= parallelThreshold
+            ? inPool(() -> lines.parallelStream().map(this::processLine).toList())
+            : lines.stream().map(this::processLine).toList();
         
-        for (Token token : tokens) {
-            String reading = token.getReading();
-            String surface = token.getSurface();
-            
-            if (reading != null && !reading.isEmpty()) {
-                hiragana.append(reading);
-                romaji.append(toRomaji(reading));
-            } else {
-                hiragana.append(surface);
-                romaji.append(surface);
+        StringBuilder hiragana = new StringBuilder(text.length() * 2);
+        StringBuilder romaji = new StringBuilder(text.length() * 3);
+        for (int i = 0; i < processed.size(); i++) {
+            if (i > 0) {
+                hiragana.append('\n');
+                romaji.append('\n');
             }
+            hiragana.append(processed.get(i).hiragana());
+            romaji.append(processed.get(i).romaji());
         }
         
         return new ProcessedLyrics(text, hiragana.toString(), romaji.toString());
     }
     
-    private String toRomaji(String hiragana) {
-        // Basic romaji conversion - simplified version
-        // For production, consider using a library like kuromoji-analyzer with romaji conversion
-        Map<String, String> romajiMap = new HashMap<>();
-        romajiMap.put("あ", "a"); romajiMap.put("い", "i"); romajiMap.put("う", "u");
-        romajiMap.put("え", "e"); romajiMap.put("お", "o");
-        // Add more mappings as needed
+    // Processes many texts across all cores; results are in input order
+    public List<ProcessedLyrics> processBatch(List<String> texts) {
+        return inPool(() -> texts.parallelStream().map(this::processLyrics).toList());
+    }
+    
+    // Runs a parallel stream on the processing pool rather than the common pool; nested calls
+    // (a large document inside a batch) just join the work already running there
+    private <T> T inPool(Supplier<T> work) {
+        if (ForkJoinTask.getPool() == pool) {
+            return work.get();
+        }
+        return pool.submit(work::get).join();
+    }
+    
+    private static List<String> splitLines(String text) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        while (true) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                lines.add(text.substring(start));
+                return lines;
+            }
+            lines.add(text.substring(start, end));
+            start = end + 1;
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+    
+    // Same lines as processLyrics, produced lazily one at a time as the subscriber asks for them
+    public Flux<ProcessedLyrics> processLines(String text) {
+        String source = text == null ? "" : text;
+        return Flux.<ProcessedLyrics, Integer>generate(() -> 0, (start, sink) -> {
+            if (start > source.length()) {
+                sink.complete();
+                return start;
+            }
+            int end = source.indexOf('\n', start);
+            if (end < 0) {
+                end = source.length();
+            }
+            sink.next(processLine(source.substring(start, end)));
+            return end + 1;
+        });
+    }
+    
+    // One line without its line break; only lines not seen recently reach the tokenizer
+    public ProcessedLyrics processLine(String line) {
+        if (line.isEmpty()) {
+            return new ProcessedLyrics("", "", "");
+        }
+        return lineCache.get(line, this::tokenizeTimed);
+    }
+    
+    private ProcessedLyrics tokenizeTimed(String line) {
+        ReadingTokenizer loaded = tokenizer.join();
+        long start = System.nanoTime();
+        ProcessedLyrics processed = tokenizeLine(loaded, line);
+        tokenizeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        tokenizedCharacters.increment(line.length());
+        return processed;
+    }
+    
+    private static ProcessedLyrics tokenizeLine(ReadingTokenizer tokenizer, String line) {
+        StringBuilder hiragana = new StringBuilder(line.length() * 2);
+        // Readings for the romanizer, with particles respelled as pronounced; transliterated
+        // in one pass so っ at the end of one token doubles the start of the next
+        StringBuilder spoken = new StringBuilder(line.length() * 2);
+        tokenizer.appendReadings(line, hiragana, spoken);
+        
+        StringBuilder romaji = RomajiTransliterator.appendRomaji(spoken, new StringBuilder(spoken.length() * 2));
+        return new ProcessedLyrics(line, hiragana.toString(), romaji.toString());
+    }
+    
+    public Map<String, Object> lineCacheStats() {
+        return UpstreamCache.describe(lineCache);
+    }
+    
+    // Folds text to the form the lyrics search index works on: kanji replaced by their kana
+    // reading, katakana folded to hiragana, Latin lower-cased, punctuation and spaces dropped.
+    // Line breaks are kept so callers can avoid matching across lines.
+    public String toSearchKana(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
         
-        StringBuilder result = new StringBuilder();
-        for (char c : hiragana.toCharArray()) {
-            result.append(romajiMap.getOrDefault(String.valueOf(c), String.valueOf(c)));
+        // Goes through the line cache, so lyrics already processed for display cost no tokenizing
+        // (unless NFKC changes them, e.g. full-width Latin)
+        String readings = processLyrics(Normalizer.normalize(text, Normalizer.Form.NFKC)).hiragana();
+        StringBuilder kana = new StringBuilder(readings.length());
+        for (int i = 0; i < readings.length(); i++) {
+            char c = readings.charAt(i);
+            if (c >= 'ァ' && c <= 'ヶ') {
+                kana.append((char) (c - 0x60));
+            } else if (c == '\n') {
+                if (kana.length() > 0 && kana.charAt(kana.length() - 1) != '\n') {
+                    kana.append('\n');
+                }
+            } else if (Character.isLetterOrDigit(c) || c == 'ー') {
+                kana.append(Character.toLowerCase(c));
+            }
         }
-        return result.toString();
+        return kana.toString();
     }
     
     public String addFurigana(String text) {
@@ -0,0 +1,127 @@
+package com.kashifind.service;
+
+import com.atilika.kuromoji.TokenizerBase;
+import com.atilika.kuromoji.dict.CharacterDefinitions;
+import com.atilika.kuromoji.dict.ConnectionCosts;
+import com.atilika.kuromoji.dict.InsertedDictionary;
+import com.atilika.kuromoji.dict.TokenInfoDictionary;
+import com.atilika.kuromoji.dict.UnknownDictionary;
+import com.atilika.kuromoji.dict.UserDictionary;
+import com.atilika.kuromoji.ipadic.Tokenizer;
+import com.atilika.kuromoji.trie.DoubleArrayTrie;
+import com.atilika.kuromoji.util.SimpleResourceResolver;
+import com.atilika.kuromoji.viterbi.ViterbiBuilder;
+import com.atilika.kuromoji.viterbi.ViterbiNode;
+import com.atilika.kuromoji.viterbi.ViterbiSearcher;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+// Reading-only path through kuromoji for processLyrics. Tokenizer.tokenize wraps every node of
+// the best path in a Token and resolves features through it; here the Viterbi path is walked
+// directly and only the reading (and part of speech, for particles) of dictionary words is
+// looked up. Unknown words have no reading, so their features are never touched.
+// Segmentation matches Tokenizer exactly: same dictionaries, same split at 。 and 、.
+public final class ReadingTokenizer {
+    
+    private final Tokenizer tokenizer;
+    private final ViterbiBuilder viterbiBuilder;
+    private final ViterbiSearcher viterbiSearcher;
+    private final TokenInfoDictionary dictionary;
+    private final int readingFeature;
+    private final int partOfSpeechFeature;
+    
+    public ReadingTokenizer() {
+        DictionaryBuilder builder = new DictionaryBuilder();
+        this.tokenizer = builder.build();
+        // build() loaded the dictionaries into the builder; share them rather than load twice
+        this.viterbiBuilder = new ViterbiBuilder(builder.doubleArrayTrie(), builder.tokenInfoDictionary(),
+            builder.unknownDictionary(), builder.userDictionary(), builder.mode());
+        this.viterbiSearcher = new ViterbiSearcher(builder.mode(), builder.connectionCosts(),
+            builder.unknownDictionary(), builder.penalties());
+        this.dictionary = builder.tokenInfoDictionary();
+        this.readingFeature = builder.readingFeature();
+        this.partOfSpeechFeature = builder.partOfSpeechFeature();
+    }
+    
+    // The full tokenizer over the same dictionaries, for callers that need every feature
+    public Tokenizer tokenizer() {
+        return tokenizer;
+    }
+    
+    // Appends each token's reading (its surface when it has none) to readings, and the same to
+    // spoken with particles は/へ respelled わ/え as they are pronounced
+    public void appendReadings(String text, StringBuilder readings, StringBuilder spoken) {
+        int start = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '。' || c == '、') {
+                appendSegment(text.substring(start, i + 1), readings, spoken);
+                start = i + 1;
+            }
+        }
+        if (start < length) {
+            appendSegment(start == 0 ? text : text.substring(start), readings, spoken);
+        }
+    }
+    
+    private void appendSegment(String segment, StringBuilder readings, StringBuilder spoken) {
+        for (ViterbiNode node : viterbiSearcher.search(viterbiBuilder.build(segment))) {
+            int wordId = node.getWordId();
+            if (node.getType() != ViterbiNode.Type.KNOWN) {
+                readings.append(node.getSurface());
+                spoken.append(node.getSurface());
+                continue;
+            }
+            if (wordId == -1) {
+                // BOS/EOS
+                continue;
+            }
+            
+            // IPADIC has "*" for words without a reading
+            String reading = dictionary.getFeature(wordId, readingFeature);
+            String value = reading.isEmpty() || "*".equals(reading) ? node.getSurface() : reading;
+            readings.append(value);
+            if (reading.length() == 1 && (reading.charAt(0) == 'ハ' || reading.charAt(0) == 'ヘ')
+                    && "助詞".equals(dictionary.getFeature(wordId, partOfSpeechFeature))) {
+                spoken.append(reading.charAt(0) == 'ハ' ? 'ワ' : 'エ');
+            } else {
+                spoken.append(value);
+            }
+        }
+    }
+    
+    // Exposes the dictionaries the stock builder loads
+    private static final class DictionaryBuilder extends Tokenizer.Builder {
+        // As the stock builder does, except that it resolves the dictionary resources against
+        // getClass(), which from a subclass outside kuromoji's package finds nothing
+        @Override
+        protected void loadDictionaries() {
+            // Kanji and other-character length thresholds and penalties (used in search mode)
+            penalties = List.of(2, 3000, 7, 1700);
+            resolver = new SimpleResourceResolver(Tokenizer.class);
+            try {
+                doubleArrayTrie = DoubleArrayTrie.newInstance(resolver);
+                connectionCosts = ConnectionCosts.newInstance(resolver);
+                tokenInfoDictionary = TokenInfoDictionary.newInstance(resolver);
+                characterDefinitions = CharacterDefinitions.newInstance(resolver);
+                unknownDictionary = UnknownDictionary.newInstance(resolver, characterDefinitions, totalFeatures);
+                insertedDictionary = new InsertedDictionary(totalFeatures);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not load kuromoji dictionaries", e);
+            }
+        }
+        
+        DoubleArrayTrie doubleArrayTrie() { return doubleArrayTrie; }
+        TokenInfoDictionary tokenInfoDictionary() { return tokenInfoDictionary; }
+        UnknownDictionary unknownDictionary() { return unknownDictionary; }
+        UserDictionary userDictionary() { return userDictionary; }
+        ConnectionCosts connectionCosts() { return connectionCosts; }
+        TokenizerBase.Mode mode() { return mode; }
+        List<Integer> penalties() { return penalties; }
+        int readingFeature() { return readingFeature; }
+        int partOfSpeechFeature() { return partOfSpeechFeature; }
+    }
+}
@@ -0,0 +1,161 @@
+package com.kashifind.service;
+
+// Hepburn romanization of hiragana/katakana over static char-indexed tables. Katakana is folded
+// onto the hiragana table, two-kana syllables (きゃ, ふぁ, ティ...) come from per-kana combination
+// tables, っ doubles the next consonant (tch before ch), ー repeats the previous vowel and ん
+// takes an apostrophe before a vowel or y. Anything else passes through unchanged.
+// Particles は/へ can't be told from the kana alone; callers pass them in as わ/え.
+public final class RomajiTransliterator {
+    
+    private static final char FIRST = 'ぁ';
+    private static final char LAST = 'ゖ';
+    private static final int KATAKANA_OFFSET = 'ァ' - 'ぁ';
+    private static final String VOWELS = "aiueo";
+    
+    // Indexed by kana - FIRST
+    private static final String[] SYLLABLES = new String[LAST - FIRST + 1];
+    // Indexed by kana - FIRST, then 0/1/2 for a following ゃ/ゅ/ょ
+    private static final String[][] YOON = new String[LAST - FIRST + 1][];
+    // Indexed by kana - FIRST, then 0-4 for a following ぁ/ぃ/ぅ/ぇ/ぉ
+    private static final String[][] SMALL_VOWELS = new String[LAST - FIRST + 1][];
+    // ヷ ヸ ヹ ヺ have no hiragana counterpart
+    private static final String[] KATAKANA_V = {"va", "vi", "ve", "vo"};
+    
+    static {
+        String[] rows = {
+            "ぁa", "あa", "ぃi", "いi", "ぅu", "うu", "ぇe", "えe", "ぉo", "おo",
+            "かka", "がga", "きki", "ぎgi", "くku", "ぐgu", "けke", "げge", "こko", "ごgo",
+            "さsa", "ざza", "しshi", "じji", "すsu", "ずzu", "せse", "ぜze", "そso", "ぞzo",
+            "たta", "だda", "ちchi", "ぢji", "っtsu", "つtsu", "づzu", "てte", "でde", "とto", "どdo",
+            "なna", "にni", "ぬnu", "ねne", "のno",
+            "はha", "ばba", "ぱpa", "ひhi", "びbi", "ぴpi", "ふfu", "ぶbu", "ぷpu",
+            "へhe", "べbe", "ぺpe", "ほho", "ぼbo", "ぽpo",
+            "まma", "みmi", "むmu", "めme", "もmo",
+            "ゃya", "やya", "ゅyu", "ゆyu", "ょyo", "よyo",
+            "らra", "りri", "るru", "れre", "ろro",
+            "ゎwa", "わwa", "ゐi", "ゑe", "をo", "んn", "ゔvu", "ゕka", "ゖke"
+        };
+        for (String row : rows) {
+            SYLLABLES[row.charAt(0) - FIRST] = row.substring(1);
+        }
+        
+        // i-row kana + small ya/yu/yo: drop the i, keep sh/ch/j as they are, otherwise add y
+        for (char kana : "きぎしじちぢにひびぴみりゔ".toCharArray()) {
+            String base = SYLLABLES[kana - FIRST];
+            String stem = base.endsWith("i") ? base.substring(0, base.length() - 1) : "v";
+            String glide = stem.endsWith("h") || stem.equals("j") ? stem : stem + "y";
+            YOON[kana - FIRST] = new String[] {glide + "a", glide + "u", glide + "o"};
+        }
+        YOON['て' - FIRST] = new String[] {null, "tyu", null};
+        YOON['で' - FIRST] = new String[] {null, "dyu", null};
+        YOON['ふ' - FIRST] = new String[] {null, "fyu", null};
+        
+        // Mostly katakana loanword spellings: ファ, ティ, ウィ, シェ, ツァ ...
+        smallVowels('う', null, "wi", null, "we", "wo");
+        smallVowels('ゔ', "va", "vi", null, "ve", "vo");
+        smallVowels('ふ', "fa", "fi", null, "fe", "fo");
+        smallVowels('つ', "tsa", "tsi", null, "tse", "tso");
+        smallVowels('く', "kwa", "kwi", null, "kwe", "kwo");
+        smallVowels('ぐ', "gwa", "gwi", null, "gwe", "gwo");
+        smallVowels('て', null, "ti", null, null, null);
+        smallVowels('で', null, "di", null, null, null);
+        smallVowels('と', null, null, "tu", null, null);
+        smallVowels('ど', null, null, "du", null, null);
+        smallVowels('す', null, "si", null, null, null);
+        smallVowels('ず', null, "zi", null, null, null);
+        smallVowels('し', null, null, null, "she", null);
+        smallVowels('じ', null, null, null, "je", null);
+        smallVowels('ち', null, null, null, "che", null);
+        smallVowels('い', null, null, null, "ye", null);
+    }
+    
+    private RomajiTransliterator() {}
+    
+    private static void smallVowels(char kana, String... syllables) {
+        SMALL_VOWELS[kana - FIRST] = syllables;
+    }
+    
+    public static String toRomaji(CharSequence kana) {
+        return appendRomaji(kana, new StringBuilder(kana.length() * 2)).toString();
+    }
+    
+    // Appends the romanization to out; the only allocation is out growing
+    public static StringBuilder appendRomaji(CharSequence kana, StringBuilder out) {
+        int length = kana.length();
+        boolean sokuon = false;
+        boolean afterN = false;
+        char lastVowel = 0;
+        
+        for (int i = 0; i < length; i++) {
+            char c = fold(kana.charAt(i));
+            String syllable;
+            if (c == 'っ') {
+                sokuon = true;
+                continue;
+            } else if (c == 'ー') {
+                if (lastVowel != 0) {
+                    out.append(lastVowel);
+                }
+                continue;
+            } else if (c >= 'ヷ' && c <= 'ヺ') {
+                syllable = KATAKANA_V[c - 'ヷ'];
+            } else if (c >= FIRST && c <= LAST) {
+                syllable = SYLLABLES[c - FIRST];
+                if (i + 1 < length) {
+                    String combined = combine(c, fold(kana.charAt(i + 1)));
+                    if (combined != null) {
+                        syllable = combined;
+                        i++;
+                    }
+                }
+            } else {
+                out.append(kana.charAt(i));
+                sokuon = false;
+                afterN = false;
+                lastVowel = 0;
+                continue;
+            }
+            
+            char first = syllable.charAt(0);
+            if (afterN && (VOWELS.indexOf(first) >= 0 || first == 'y')) {
+                out.append('\'');
+            }
+            if (sokuon) {
+                if (syllable.startsWith("ch")) {
+                    out.append('t');
+                } else if (VOWELS.indexOf(first) < 0 && first != 'n') {
+                    out.append(first);
+                }
+                sokuon = false;
+            }
+            out.append(syllable);
+            
+            afterN = c == 'ん';
+            char last = syllable.charAt(syllable.length() - 1);
+            lastVowel = VOWELS.indexOf(last) >= 0 ? last : 0;
+        }
+        return out;
+    }
+    
+    private static String combine(char kana, char next) {
+        String[] table;
+        int column;
+        switch (next) {
+            case 'ゃ' -> { table = YOON[kana - FIRST]; column = 0; }
+            case 'ゅ' -> { table = YOON[kana - FIRST]; column = 1; }
+            case 'ょ' -> { table = YOON[kana - FIRST]; column = 2; }
+            case 'ぁ' -> { table = SMALL_VOWELS[kana - FIRST]; column = 0; }
+            case 'ぃ' -> { table = SMALL_VOWELS[kana - FIRST]; column = 1; }
+            case 'ぅ' -> { table = SMALL_VOWELS[kana - FIRST]; column = 2; }
+            case 'ぇ' -> { table = SMALL_VOWELS[kana - FIRST]; column = 3; }
+            case 'ぉ' -> { table = SMALL_VOWELS[kana - FIRST]; column = 4; }
+            default -> { return null; }
+        }
+        return table == null ? null : table[column];
+    }
+    
+    // Katakana ァ..ヶ onto hiragana; everything else unchanged
+    private static char fold(char c) {
+        return c >= 'ァ' && c <= 'ヶ' ? (char) (c - KATAKANA_OFFSET) : c;
+    }
+}
@@ -0,0 +1,36 @@
+package com.kashifind.service;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Collapses concurrent identical upstream calls: while a call for a key is in flight, later
+// callers subscribe to the same result instead of starting their own. Errors reach every
+// waiting caller and are not remembered, so the next caller retries. A caller cancelling
+// only detaches that caller; the upstream call is cancelled once every caller has gone.
+public final class SingleFlight<K, V> {
+    
+    private final ConcurrentHashMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> inFlight.computeIfAbsent(key, k -> start(k, call)));
+    }
+    
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+    
+    private Mono<V> start(K key, Supplier<Mono<V>> call) {
+        AtomicReference<Mono<V>> self = new AtomicReference<>();
+        Mono<V> shared = Mono.defer(call)
+            .doFinally(signal -> inFlight.remove(key, self.get()))
+            .flux()
+            .publish()
+            .refCount(1)
+            .singleOrEmpty();
+        self.set(shared);
+        return shared;
+    }
+}
@@ -0,0 +1,195 @@
+package com.kashifind.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Owns the Spotify client-credentials tokens. Reads are a volatile load; tokens are refreshed
+// in the background ahead of expiry, at most one refresh per credential pair at a time.
+// Several client-id/secret pairs can be configured and requests are spread across them.
+@Component
+public class SpotifyTokenManager {
+    
+    private static final Logger log = LoggerFactory.getLogger(SpotifyTokenManager.class);
+    
+    private static final long RETRY_DELAY_MS = 30_000;
+    
+    private final List<Credential> credentials;
+    private final Duration refreshAhead;
+    private final String accountsUrl;
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final UpstreamGuard tokenCalls;
+    private final SingleFlight<Integer, String> refreshes = new SingleFlight<>();
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final ScheduledExecutorService scheduler;
+    
+    public SpotifyTokenManager(
+            @Value("${app.external-apis.spotify.client-id:}") String clientId,
+            @Value("${app.external-apis.spotify.client-secret:}") String clientSecret,
+            @Value("${app.external-apis.spotify.additional-credentials:}") String additionalCredentials,
+            @Value("${app.external-apis.spotify.token-refresh-ahead:5m}") Duration refreshAhead,
+            @Value("${app.external-apis.spotify.accounts-url:https://accounts.spotify.com}") String accountsUrl,
+            UpstreamGuards guards,
+            UpstreamClients clients) {
+        this.credentials = parseCredentials(clientId, clientSecret, additionalCredentials);
+        this.refreshAhead = refreshAhead;
+        this.accountsUrl = accountsUrl;
+        this.webClient = clients.client("spotify-accounts", accountsUrl, !credentials.isEmpty());
+        this.objectMapper = new ObjectMapper();
+        this.tokenCalls = guards.guard("spotify", "token");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spotify-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    // "id:secret,id:secret" - pairs added to the primary client-id/client-secret
+    private static List<Credential> parseCredentials(String clientId, String clientSecret, String additional) {
+        List<Credential> result = new ArrayList<>();
+        if (clientId != null && !clientId.isEmpty() && clientSecret != null && !clientSecret.isEmpty()) {
+            result.add(new Credential(clientId, clientSecret));
+        }
+        if (additional != null && !additional.isBlank()) {
+            for (String pair : additional.split(",")) {
+                String trimmed = pair.trim();
+                int separator = trimmed.indexOf(':');
+                if (separator > 0 && separator < trimmed.length() - 1) {
+                    result.add(new Credential(trimmed.substring(0, separator), trimmed.substring(separator + 1)));
+                } else if (!trimmed.isEmpty()) {
+                    log.warn("Ignoring malformed Spotify credential pair (expected id:secret)");
+                }
+            }
+        }
+        return List.copyOf(result);
+    }
+    
+    @PostConstruct
+    public void start() {
+        // Fetch every token up front so the first requests don't wait for accounts.spotify.com
+        for (int i = 0; i < credentials.size(); i++) {
+            scheduleRefresh(i, 0);
+        }
+    }
+    
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+    
+    public boolean isConfigured() {
+        return !credentials.isEmpty();
+    }
+    
+    // Round-robins over credentials holding a live token. Only when none has one (cold start,
+    // or every refresh failing) does the caller wait, and then it joins the in-flight refresh.
+    public Mono<String> currentToken() {
+        int count = credentials.size();
+        if (count == 0) {
+            return Mono.empty();
+        }
+        
+        int start = Math.floorMod(cursor.getAndIncrement(), count);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            AccessToken token = credentials.get((start + i) % count).token;
+            if (token != null && now < token.expiresAt()) {
+                return Mono.just(token.value());
+            }
+        }
+        return refresh(start);
+    }
+    
+    private Mono<String> refresh(int index) {
+        return refreshes.execute(index, () -> requestToken(index));
+    }
+    
+    // Replaces any pending refresh for the credential, so there is one refresh chain per pair
+    private void scheduleRefresh(int index, long delayMs) {
+        Credential credential = credentials.get(index);
+        synchronized (credential) {
+            if (credential.nextRefresh != null) {
+                credential.nextRefresh.cancel(false);
+            }
+            try {
+                credential.nextRefresh = scheduler.schedule(() -> refresh(index)
+                    .hasElement()
+                    .subscribe(refreshed -> {
+                        if (!refreshed) {
+                            scheduleRefresh(index, RETRY_DELAY_MS);
+                        }
+                    }), delayMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }
+    }
+    
+    private Mono<String> requestToken(int index) {
+        Credential credential = credentials.get(index);
+        String basic = Base64.getEncoder().encodeToString(
+            (credential.clientId() + ":" + credential.clientSecret()).getBytes(StandardCharsets.UTF_8)
+        );
+        
+        return tokenCalls.call(webClient.post()
+            .uri(accountsUrl + "/api/token")
+            .header("Authorization", "Basic " + basic)
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .bodyValue("grant_type=client_credentials")
+            .retrieve()
+            .bodyToMono(String.class)
+            .flatMap(response -> Mono.fromCallable(() -> {
+                JsonNode json = objectMapper.readTree(response);
+                String value = json.get("access_token").asText();
+                long lifetimeMs = json.get("expires_in").asLong() * 1000L;
+                long now = System.currentTimeMillis();
+                // Stop handing the token out 60s before Spotify expires it
+                credential.token = new AccessToken(value, now + lifetimeMs - 60_000);
+                
+                long refreshIn = Math.max(lifetimeMs - refreshAhead.toMillis(), 10_000);
+                scheduleRefresh(index, refreshIn);
+                return value;
+            })))
+            .onErrorResume(e -> {
+                log.warn("Failed to get Spotify token: {}", e.getMessage());
+                return Mono.empty();
+            });
+    }
+    
+    private static final class Credential {
+        private final String clientId;
+        private final String clientSecret;
+        private volatile AccessToken token;
+        private ScheduledFuture<?> nextRefresh;
+        
+        private Credential(String clientId, String clientSecret) {
+            this.clientId = clientId;
+            this.clientSecret = clientSecret;
+        }
+        
+        String clientId() { return clientId; }
+        String clientSecret() { return clientSecret; }
+    }
+    
+    private record AccessToken(String value, long expiresAt) {}
+}
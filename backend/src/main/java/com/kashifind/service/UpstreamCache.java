@@ -0,0 +1,101 @@
+package com.kashifind.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.kashifind.dto.Lyrics;
+import com.kashifind.dto.Song;
+import com.kashifind.dto.Video;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// In-process caches in front of the external APIs. Each data type has its own TTL and
+// maximum weight; Caffeine evicts with W-TinyLFU (frequency + recency) once full.
+// Hit, miss, eviction and size meters are published as cache.*{cache=<name>}.
+@Component
+public class UpstreamCache {
+    
+    private final Cache<String, ExternalAPIsService.SearchPage> spotifySearch;
+    private final Cache<String, Song> spotifyTracks;
+    private final Cache<String, List<Video>> youtubeSearch;
+    private final Cache<String, Lyrics> lyrics;
+    
+    public UpstreamCache(
+            @Value("${app.cache.spotify-search.ttl:10m}") Duration spotifySearchTtl,
+            @Value("${app.cache.spotify-search.max-weight:20000}") long spotifySearchMaxWeight,
+            @Value("${app.cache.spotify-track.ttl:6h}") Duration spotifyTrackTtl,
+            @Value("${app.cache.spotify-track.max-weight:10000}") long spotifyTrackMaxWeight,
+            @Value("${app.cache.youtube-search.ttl:6h}") Duration youtubeSearchTtl,
+            @Value("${app.cache.youtube-search.max-weight:5000}") long youtubeSearchMaxWeight,
+            @Value("${app.cache.lyrics.ttl:24h}") Duration lyricsTtl,
+            @Value("${app.cache.lyrics.max-weight:50000000}") long lyricsMaxWeight,
+            MeterRegistry registry) {
+        // Search results are weighed by row count, lyrics by character count
+        Weigher<String, List<Video>> rows = (key, value) -> Math.max(1, value.size());
+        this.spotifySearch = build(spotifySearchTtl, spotifySearchMaxWeight,
+            (key, value) -> Math.max(1, value.items().size()));
+        this.spotifyTracks = build(spotifyTrackTtl, spotifyTrackMaxWeight, (key, value) -> 1);
+        this.youtubeSearch = build(youtubeSearchTtl, youtubeSearchMaxWeight, rows);
+        this.lyrics = build(lyricsTtl, lyricsMaxWeight,
+            (key, value) -> Math.max(1, value.original().length()));
+        
+        CaffeineCacheMetrics.monitor(registry, spotifySearch, "spotify-search");
+        CaffeineCacheMetrics.monitor(registry, spotifyTracks, "spotify-track");
+        CaffeineCacheMetrics.monitor(registry, youtubeSearch, "youtube-search");
+        CaffeineCacheMetrics.monitor(registry, lyrics, "lyrics");
+    }
+    
+    private static <V> Cache<String, V> build(Duration ttl, long maxWeight, Weigher<String, V> weigher) {
+        return Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumWeight(maxWeight)
+            .weigher(weigher)
+            .recordStats()
+            .build();
+    }
+    
+    public Cache<String, ExternalAPIsService.SearchPage> spotifySearch() { return spotifySearch; }
+    public Cache<String, Song> spotifyTracks() { return spotifyTracks; }
+    public Cache<String, List<Video>> youtubeSearch() { return youtubeSearch; }
+    public Cache<String, Lyrics> lyrics() { return lyrics; }
+    
+    // Folds width variants, case and whitespace so "ＹＯＡＳＯＢＩ  夜に駆ける" and
+    // "yoasobi 夜に駆ける" share an entry. Not for IDs - Spotify IDs are case-sensitive.
+    public static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(query, Normalizer.Form.NFKC);
+        return folded.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("spotifySearch", describe(spotifySearch));
+        stats.put("spotifyTracks", describe(spotifyTracks));
+        stats.put("youtubeSearch", describe(youtubeSearch));
+        stats.put("lyrics", describe(lyrics));
+        return stats;
+    }
+    
+    static Map<String, Object> describe(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("size", cache.estimatedSize());
+        data.put("hits", stats.hitCount());
+        data.put("misses", stats.missCount());
+        data.put("hitRate", stats.hitRate());
+        data.put("evictions", stats.evictionCount());
+        return data;
+    }
+}
@@ -0,0 +1,100 @@
+package com.kashifind.service;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// One WebClient and connection pool per upstream host, configured from app.http-clients.<name>.*
+// with app.http-clients.defaults.* as the fallback.
+@Component
+public class UpstreamClients {
+    
+    private static final Logger log = LoggerFactory.getLogger(UpstreamClients.class);
+    
+    private final Environment environment;
+    private final List<ConnectionProvider> pools = new CopyOnWriteArrayList<>();
+    
+    public UpstreamClients(Environment environment) {
+        this.environment = environment;
+    }
+    
+    // Clients that won't be called, such as an upstream without credentials, are not warmed up
+    public WebClient client(String name, String baseUrl, boolean used) {
+        String prefix = "app.http-clients." + name + ".";
+        int maxConnections = setting(prefix, "max-connections", Integer.class, 50);
+        ConnectionProvider pool = ConnectionProvider.builder(name)
+            .maxConnections(maxConnections)
+            .pendingAcquireMaxCount(setting(prefix, "pending-acquire-max", Integer.class, maxConnections * 4))
+            .pendingAcquireTimeout(setting(prefix, "pending-acquire-timeout", Duration.class, Duration.ofSeconds(2)))
+            .maxIdleTime(setting(prefix, "max-idle-time", Duration.class, Duration.ofSeconds(30)))
+            .maxLifeTime(setting(prefix, "max-life-time", Duration.class, Duration.ofMinutes(10)))
+            .evictInBackground(setting(prefix, "evict-interval", Duration.class, Duration.ofSeconds(15)))
+            .metrics(true)
+            .build();
+        pools.add(pool);
+        
+        HttpClient http = HttpClient.create(pool)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+                (int) setting(prefix, "connect-timeout", Duration.class, Duration.ofSeconds(2)).toMillis())
+            .option(ChannelOption.SO_KEEPALIVE, true)
+            .keepAlive(true)
+            .compress(setting(prefix, "compress", Boolean.class, true))
+            .responseTimeout(setting(prefix, "response-timeout", Duration.class, Duration.ofSeconds(10)));
+        if (setting(prefix, "http2", Boolean.class, false) && baseUrl.startsWith("https:")) {
+            http = http.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        }
+        
+        WebClient client = WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(http))
+            .build();
+        if (used) {
+            warm(name, http, client, baseUrl, setting(prefix, "warm-connections", Integer.class, 2));
+        }
+        return client;
+    }
+    
+    // Event loops and DNS resolver first, then that many concurrent requests to the host root;
+    // whatever they answer, the connections stay pooled
+    private static void warm(String name, HttpClient http, WebClient client, String baseUrl, int connections) {
+        if (connections <= 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        http.warmup()
+            .thenMany(Flux.range(0, connections)
+                .flatMap(i -> client.head()
+                    .uri(baseUrl + "/")
+                    .exchangeToMono(response -> response.releaseBody().thenReturn(true))
+                    .onErrorResume(e -> Mono.empty())))
+            .count()
+            .timeout(Duration.ofSeconds(10))
+            .subscribe(
+                warmed -> log.info("HTTP client {} warmed {}/{} connections in {}ms", name, warmed, connections,
+                    (System.nanoTime() - started) / 1_000_000),
+                e -> log.warn("HTTP client {} warm-up failed: {}", name, e.getMessage()));
+    }
+    
+    private <T> T setting(String prefix, String key, Class<T> type, T fallback) {
+        T value = environment.getProperty(prefix + key, type);
+        return value != null ? value : environment.getProperty("app.http-clients.defaults." + key, type, fallback);
+    }
+    
+    @PreDestroy
+    public void close() {
+        pools.forEach(pool -> pool.disposeLater().block(Duration.ofSeconds(5)));
+    }
+}
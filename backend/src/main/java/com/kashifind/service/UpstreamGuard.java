@@ -0,0 +1,77 @@
+package com.kashifind.service;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Bulkhead (an AdaptiveLimit), circuit breaker and whole-call timeout for one upstream call site.
+// Refused calls fail at once with UpstreamRejectedException; every call, refused ones included, is timed.
+public final class UpstreamGuard {
+    
+    // Errors that say the upstream is unhealthy; 4xx answers and bodies we could not map do not
+    private static final Set<String> UPSTREAM_FAULTS = Set.of("timeout", "connection", "server_error", "rate_limited");
+    
+    private final String upstream;
+    private final String endpoint;
+    private final Duration timeout;
+    private final AdaptiveLimit limit;
+    private final CircuitBreaker breaker;
+    private final UpstreamMetrics.Endpoint metrics;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    
+    UpstreamGuard(String upstream, String endpoint, Duration timeout, AdaptiveLimit limit,
+                  CircuitBreaker breaker, UpstreamMetrics.Endpoint metrics) {
+        this.upstream = upstream;
+        this.endpoint = endpoint;
+        this.timeout = timeout;
+        this.limit = limit;
+        this.breaker = breaker;
+        this.metrics = metrics;
+    }
+    
+    public <T> Mono<T> call(Mono<T> call) {
+        return metrics.record(Mono.defer(() -> {
+            int running = inFlight.incrementAndGet();
+            if (running > limit.current()) {
+                inFlight.decrementAndGet();
+                return Mono.error(new UpstreamRejectedException(upstream, endpoint, "bulkhead_full"));
+            }
+            if (!breaker.tryAcquire()) {
+                inFlight.decrementAndGet();
+                return Mono.error(new UpstreamRejectedException(upstream, endpoint, "circuit_open"));
+            }
+            long start = System.nanoTime();
+            return call
+                .timeout(timeout)
+                .doOnSuccess(value -> {
+                    breaker.onSuccess();
+                    limit.onSample(start, System.nanoTime() - start, running);
+                })
+                .doOnError(e -> {
+                    if (UPSTREAM_FAULTS.contains(UpstreamMetrics.errorType(e))) {
+                        breaker.onFailure();
+                        limit.onDrop(start);
+                    } else {
+                        breaker.onSuccess();
+                        limit.onSample(start, System.nanoTime() - start, running);
+                    }
+                })
+                .doOnCancel(breaker::onIgnored)
+                .doFinally(signal -> inFlight.decrementAndGet());
+        }));
+    }
+    
+    int inFlight() {
+        return inFlight.get();
+    }
+    
+    int limit() {
+        return limit.current();
+    }
+    
+    CircuitBreaker.State state() {
+        return breaker.state();
+    }
+}
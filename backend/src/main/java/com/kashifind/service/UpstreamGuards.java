@@ -0,0 +1,74 @@
+package com.kashifind.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Builds the UpstreamGuard for each call site. Settings are read from
+// app.upstreams.<upstream>.<endpoint>.*, falling back to app.upstreams.defaults.*, so every
+// call site can be tuned on its own without a constructor parameter per knob. Publishes
+// kashifind.upstream.in-flight, kashifind.upstream.limit and kashifind.upstream.circuit
+// (0 closed, 1 half-open, 2 open).
+@Component
+public class UpstreamGuards {
+    
+    private final Environment environment;
+    private final UpstreamMetrics metrics;
+    private final MeterRegistry registry;
+    
+    public UpstreamGuards(Environment environment, UpstreamMetrics metrics, MeterRegistry registry) {
+        this.environment = environment;
+        this.metrics = metrics;
+        this.registry = registry;
+    }
+    
+    public UpstreamGuard guard(String upstream, String endpoint) {
+        String prefix = "app.upstreams." + upstream + "." + endpoint + ".";
+        CircuitBreaker breaker = new CircuitBreaker(
+            setting(prefix, "breaker.window", Integer.class, 20),
+            setting(prefix, "breaker.minimum-calls", Integer.class, 10),
+            setting(prefix, "breaker.failure-rate", Double.class, 0.5),
+            setting(prefix, "breaker.open-for", Duration.class, Duration.ofSeconds(30)),
+            setting(prefix, "breaker.half-open-calls", Integer.class, 3));
+        int maxConcurrent = setting(prefix, "max-concurrent", Integer.class, 64);
+        AdaptiveLimit limit = setting(prefix, "limit.adaptive", Boolean.class, true)
+            ? new AdaptiveLimit(
+                setting(prefix, "limit.initial", Integer.class, 16),
+                setting(prefix, "limit.min", Integer.class, 2),
+                maxConcurrent,
+                setting(prefix, "limit.tolerance", Double.class, 2.0),
+                setting(prefix, "limit.backoff", Double.class, 0.9))
+            : AdaptiveLimit.fixed(maxConcurrent);
+        UpstreamGuard guard = new UpstreamGuard(upstream, endpoint,
+            setting(prefix, "timeout", Duration.class, Duration.ofSeconds(5)),
+            limit,
+            breaker,
+            metrics.endpoint(upstream, endpoint));
+        
+        Gauge.builder("kashifind.upstream.in-flight", guard, UpstreamGuard::inFlight)
+            .description("Calls to external APIs currently holding a bulkhead slot")
+            .tags("upstream", upstream, "endpoint", endpoint)
+            .register(registry);
+        Gauge.builder("kashifind.upstream.limit", guard, UpstreamGuard::limit)
+            .description("Calls to external APIs currently allowed in flight")
+            .tags("upstream", upstream, "endpoint", endpoint)
+            .register(registry);
+        Gauge.builder("kashifind.upstream.circuit", guard, g -> switch (g.state()) {
+                case CLOSED -> 0;
+                case HALF_OPEN -> 1;
+                case OPEN -> 2;
+            })
+            .description("Circuit breaker state: 0 closed, 1 half-open, 2 open")
+            .tags("upstream", upstream, "endpoint", endpoint)
+            .register(registry);
+        return guard;
+    }
+    
+    private <T> T setting(String prefix, String key, Class<T> type, T fallback) {
+        T value = environment.getProperty(prefix + key, type);
+        return value != null ? value : environment.getProperty("app.upstreams.defaults." + key, type, fallback);
+    }
+}
@@ -0,0 +1,342 @@
+package com.kashifind.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.kashifind.dto.Lyrics;
+import com.kashifind.dto.Song;
+import com.kashifind.dto.Video;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// Decodes upstream responses into records with Jackson's streaming parser, reading straight
+// from the response's network buffers: no String copy of the body and no JsonNode tree.
+// Only the fields the records need are read; everything else is skipped token by token.
+// Readers are tolerant - a missing or oddly typed field becomes null rather than an error.
+public final class UpstreamJson {
+    
+    private static final Logger log = LoggerFactory.getLogger(UpstreamJson.class);
+    
+    private static final JsonFactory FACTORY = new JsonFactory();
+    
+    @FunctionalInterface
+    public interface Reader<T> {
+        // Called with the parser on the document's first token; null means "nothing there"
+        T read(JsonParser parser) throws IOException;
+    }
+    
+    private UpstreamJson() {}
+    
+    // The buffers are joined (not copied into a String) and released once the parser closes;
+    // a reader returning null completes the Mono empty
+    public static <T> Mono<T> decode(WebClient.ResponseSpec response, Reader<T> reader) {
+        return DataBufferUtils.join(response.bodyToFlux(DataBuffer.class))
+            .handle((buffer, sink) -> {
+                try {
+                    T value = read(buffer.asInputStream(true), reader);
+                    if (value != null) {
+                        sink.next(value);
+                    }
+                } catch (IOException e) {
+                    sink.error(e);
+                }
+            });
+    }
+    
+    public static <T> T read(InputStream in, Reader<T> reader) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            parser.nextToken();
+            return reader.read(parser);
+        }
+    }
+    
+    public static <T> T read(byte[] json, Reader<T> reader) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            parser.nextToken();
+            return reader.read(parser);
+        }
+    }
+    
+    // ========== Spotify ==========
+    
+    // /v1/search?type=track
+    public static ExternalAPIsService.SearchPage spotifySearchPage(JsonParser parser, int maxTotal) throws IOException {
+        List<Song> items = List.of();
+        int total = 0;
+        while (nextField(parser)) {
+            if (!parser.currentName().equals("tracks")) {
+                parser.nextToken();
+                parser.skipChildren();
+                continue;
+            }
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (nextField(parser)) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (field.equals("items") && token == JsonToken.START_ARRAY) {
+                    items = new ArrayList<>();
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        Song song = spotifyTrack(parser);
+                        if (song != null) {
+                            items.add(song);
+                        }
+                    }
+                } else if (field.equals("total")) {
+                    total = parser.getValueAsInt(0);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new ExternalAPIsService.SearchPage(List.copyOf(items), Math.min(total, maxTotal));
+    }
+    
+    // /v1/tracks/{id}, and each item of a search page
+    public static Song spotifyTrack(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String id = null;
+        String title = null;
+        String artist = null;
+        Integer duration = null;
+        String previewUrl = null;
+        String externalUrl = null;
+        Album album = Album.NONE;
+        while (nextField(parser)) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> id = text(parser);
+                case "name" -> title = text(parser);
+                case "duration_ms" -> duration = seconds(parser);
+                case "preview_url" -> previewUrl = text(parser);
+                case "artists" -> artist = firstText(parser, "name");
+                case "external_urls" -> externalUrl = fieldText(parser, "spotify");
+                case "album" -> album = album(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        if (id == null) {
+            return null;
+        }
+        return new Song(id, title, artist, album.name(), album.year(), duration, previewUrl, album.imageUrl(),
+            externalUrl, null, null, "spotify", null);
+    }
+    
+    private record Album(String name, String year, String imageUrl) {
+        static final Album NONE = new Album(null, null, null);
+    }
+    
+    private static Album album(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return Album.NONE;
+        }
+        String name = null;
+        String year = null;
+        String imageUrl = null;
+        while (nextField(parser)) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "name" -> name = text(parser);
+                case "release_date" -> {
+                    String date = text(parser);
+                    if (date != null) {
+                        int dash = date.indexOf('-');
+                        year = dash < 0 ? date : date.substring(0, dash);
+                    }
+                }
+                // Spotify lists images largest first
+                case "images" -> imageUrl = firstText(parser, "url");
+                default -> parser.skipChildren();
+            }
+        }
+        return new Album(name, year, imageUrl);
+    }
+    
+    // ========== YouTube ==========
+    
+    // /youtube/v3/search: the medium thumbnail suits the result list
+    public static List<Video> youtubeSearch(JsonParser parser) throws IOException {
+        return youtubeItems(parser, "medium");
+    }
+    
+    // /youtube/v3/videos: the first (only) item, with the high-resolution thumbnail and duration
+    public static Video youtubeVideo(JsonParser parser) throws IOException {
+        List<Video> items = youtubeItems(parser, "high");
+        return items.isEmpty() ? null : items.get(0);
+    }
+    
+    private static List<Video> youtubeItems(JsonParser parser, String thumbnailSize) throws IOException {
+        List<Video> videos = new ArrayList<>();
+        while (nextField(parser)) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (field.equals("items") && token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    Video video = youtubeItem(parser, thumbnailSize);
+                    if (video != null) {
+                        videos.add(video);
+                    }
+                }
+            } else if (field.equals("error")) {
+                String message = token == JsonToken.START_OBJECT ? fieldText(parser, "message") : text(parser);
+                log.warn("YouTube API error: {}", message);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return videos;
+    }
+    
+    // Search items carry the ID as {"kind", "videoId"}, video items as a plain string
+    private static Video youtubeItem(JsonParser parser, String thumbnailSize) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String id = null;
+        String title = null;
+        String channelTitle = null;
+        String thumbnail = null;
+        String publishedAt = null;
+        Integer duration = null;
+        while (nextField(parser)) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "id" -> id = token == JsonToken.START_OBJECT ? fieldText(parser, "videoId") : text(parser);
+                case "contentDetails" -> {
+                    String iso = fieldText(parser, "duration");
+                    if (iso != null) {
+                        duration = ExternalAPIsService.parseYouTubeDuration(iso);
+                    }
+                }
+                case "snippet" -> {
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (nextField(parser)) {
+                        String snippetField = parser.currentName();
+                        parser.nextToken();
+                        switch (snippetField) {
+                            case "title" -> title = text(parser);
+                            case "channelTitle" -> channelTitle = text(parser);
+                            case "publishedAt" -> publishedAt = text(parser);
+                            case "thumbnails" -> thumbnail = nestedText(parser, thumbnailSize, "url");
+                            default -> parser.skipChildren();
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return id == null ? null : new Video(id, title, channelTitle, thumbnail, publishedAt, duration);
+    }
+    
+    // ========== Lyrics ==========
+    
+    // {"lyrics": "..."} as served by lyrics.ovh and Spotify's lyrics endpoint
+    public static Lyrics lyrics(JsonParser parser, String source) throws IOException {
+        String original = fieldText(parser, "lyrics");
+        return original == null || original.isEmpty() ? null : new Lyrics(original, source);
+    }
+    
+    // ========== Parser helpers ==========
+    
+    private static boolean nextField(JsonParser parser) throws IOException {
+        return parser.nextToken() == JsonToken.FIELD_NAME;
+    }
+    
+    // The current scalar as text, or null (skipping it) for objects, arrays and null
+    private static String text(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == null || token.isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getValueAsString();
+    }
+    
+    // Spotify's duration_ms in whole seconds
+    private static Integer seconds(JsonParser parser) throws IOException {
+        if (!parser.currentToken().isNumeric()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getIntValue() / 1000;
+    }
+    
+    // One field of the current object; the rest of the object is skipped
+    private static String fieldText(JsonParser parser, String name) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String value = null;
+        while (nextField(parser)) {
+            boolean wanted = parser.currentName().equals(name);
+            parser.nextToken();
+            if (wanted && value == null) {
+                value = text(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+    
+    // object.outer.inner
+    private static String nestedText(JsonParser parser, String outer, String inner) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String value = null;
+        while (nextField(parser)) {
+            boolean wanted = parser.currentName().equals(outer);
+            parser.nextToken();
+            if (wanted) {
+                value = fieldText(parser, inner);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+    
+    // array[0].name; later elements are skipped
+    private static String firstText(JsonParser parser, String name) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        String value = null;
+        boolean first = true;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (first) {
+                value = fieldText(parser, name);
+                first = false;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+}
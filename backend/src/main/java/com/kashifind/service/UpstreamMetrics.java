@@ -0,0 +1,112 @@
+package com.kashifind.service;
+
+import com.fasterxml.jackson.core.JacksonException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Timers for every outbound call, kashifind.upstream.requests{upstream, endpoint, outcome},
+// and kashifind.upstream.errors{upstream, endpoint, type} counting failures by cause. Callers
+// take one Endpoint per call site when they are built, so recording a call is two nanoTime
+// reads and a timer update with no registry lookup; histogram buckets for percentiles are
+// switched on in application.yml.
+@Component
+public class UpstreamMetrics {
+    
+    private final MeterRegistry registry;
+    
+    public UpstreamMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+    
+    public Endpoint endpoint(String upstream, String endpoint) {
+        return new Endpoint(registry, upstream, endpoint);
+    }
+    
+    public static final class Endpoint {
+        
+        private final MeterRegistry registry;
+        private final String upstream;
+        private final String endpoint;
+        private final Timer success;
+        private final Timer error;
+        private final Timer cancelled;
+        private final Timer rejected;
+        private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+        
+        private Endpoint(MeterRegistry registry, String upstream, String endpoint) {
+            this.registry = registry;
+            this.upstream = upstream;
+            this.endpoint = endpoint;
+            this.success = timer("success");
+            this.error = timer("error");
+            // Lost a hedge or the caller went away
+            this.cancelled = timer("cancelled");
+            // Refused by the call site's UpstreamGuard without reaching the upstream
+            this.rejected = timer("rejected");
+        }
+        
+        private Timer timer(String outcome) {
+            return Timer.builder("kashifind.upstream.requests")
+                .description("Calls to external APIs, including decoding the response")
+                .tags("upstream", upstream, "endpoint", endpoint, "outcome", outcome)
+                .register(registry);
+        }
+        
+        // Times the call from subscription to its first terminal signal
+        public <T> Mono<T> record(Mono<T> call) {
+            return Mono.defer(() -> {
+                long start = System.nanoTime();
+                return call
+                    .doOnSuccess(value -> success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(e -> {
+                        Timer outcome = e instanceof UpstreamRejectedException ? rejected : error;
+                        outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        errors.computeIfAbsent(errorType(e), type -> Counter.builder("kashifind.upstream.errors")
+                                .description("Failed calls to external APIs by cause")
+                                .tags("upstream", upstream, "endpoint", endpoint, "type", type)
+                                .register(registry))
+                            .increment();
+                    })
+                    .doOnCancel(() -> cancelled.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+            });
+        }
+    }
+    
+    // A small fixed set, so the error counters stay low-cardinality
+    static String errorType(Throwable e) {
+        if (e instanceof UpstreamRejectedException rejected) {
+            return rejected.reason();
+        }
+        if (e instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            if (status == 429) {
+                return "rate_limited";
+            }
+            if (status == 401 || status == 403) {
+                return "unauthorized";
+            }
+            return status >= 500 ? "server_error" : "client_error";
+        }
+        if (e instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (e instanceof WebClientRequestException) {
+            return e.getCause() instanceof TimeoutException ? "timeout" : "connection";
+        }
+        if (e instanceof JacksonException || e instanceof NullPointerException) {
+            // Unreadable body or a field the mapping expected was missing
+            return "decode";
+        }
+        return "other";
+    }
+}
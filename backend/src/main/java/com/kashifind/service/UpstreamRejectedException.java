@@ -0,0 +1,17 @@
+package com.kashifind.service;
+
+// A call refused locally by its UpstreamGuard, before any request was sent
+public class UpstreamRejectedException extends RuntimeException {
+    
+    private final String reason;
+    
+    UpstreamRejectedException(String upstream, String endpoint, String reason) {
+        super(upstream + " " + endpoint + " call refused: " + reason, null, false, false);
+        this.reason = reason;
+    }
+    
+    // circuit_open or bulkhead_full
+    public String reason() {
+        return reason;
+    }
+}
@@ -0,0 +1,121 @@
+package com.kashifind.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kashifind.dto.Video;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+// Finds the music video for a song by trying several YouTube search phrasings in ranked waves.
+// The top-ranked strategy runs alone; later waves search concurrently and the best-ranked
+// non-empty result wins. Uncached searches cost quota and stop once the budget is spent.
+// The strategy that worked for a title/artist is remembered and tried first next time.
+@Service
+public class YouTubeVideoFinder {
+    
+    // Don't require artist name to match - YouTube has videos even without exact artist match
+    enum Strategy {
+        TITLE((title, artist) -> title),
+        TITLE_ARTIST((title, artist) -> title + " " + artist),
+        ARTIST_TITLE((title, artist) -> artist + " " + title),
+        TITLE_OFFICIAL((title, artist) -> title + " official"),
+        TITLE_MV((title, artist) -> title + " MV"),
+        ARTIST((title, artist) -> artist);
+        
+        private final BiFunction<String, String, String> query;
+        
+        Strategy(BiFunction<String, String, String> query) {
+            this.query = query;
+        }
+        
+        String query(String title, String artist) {
+            return query.apply(title, artist);
+        }
+    }
+    
+    private record Attempt(Strategy strategy, String query) {}
+    
+    private record Hit(Strategy strategy, List<Video> videos) {}
+    
+    private final ExternalAPIsService externalAPIsService;
+    private final int waveSize;
+    private final int quotaBudget;
+    private final int searchCost;
+    private final Cache<String, Strategy> winningStrategies;
+    
+    public YouTubeVideoFinder(ExternalAPIsService externalAPIsService,
+                              @Value("${app.youtube.wave-size:2}") int waveSize,
+                              @Value("${app.youtube.quota-budget:300}") int quotaBudget,
+                              @Value("${app.youtube.search-cost:100}") int searchCost,
+                              @Value("${app.youtube.strategy-memory-size:10000}") long strategyMemorySize) {
+        this.externalAPIsService = externalAPIsService;
+        this.waveSize = Math.max(1, waveSize);
+        this.quotaBudget = quotaBudget;
+        this.searchCost = Math.max(1, searchCost);
+        this.winningStrategies = Caffeine.newBuilder()
+            .maximumSize(strategyMemorySize)
+            .expireAfterAccess(Duration.ofDays(7))
+            .build();
+    }
+    
+    public Mono<List<Video>> findVideo(String title, String artist) {
+        String songKey = UpstreamCache.normalize(title) + "|" + UpstreamCache.normalize(artist);
+        List<List<Attempt>> waves = plan(title, artist, winningStrategies.getIfPresent(songKey));
+        
+        return Flux.fromIterable(waves)
+            // Sequential within a wave, so results are taken in rank order however fast they arrive
+            .concatMap(wave -> Flux.fromIterable(wave)
+                .flatMapSequential(attempt -> externalAPIsService.searchYouTube(attempt.query(), 1)
+                    .filter(videos -> videos != null && !videos.isEmpty())
+                    .map(videos -> new Hit(attempt.strategy(), videos))))
+            .next()
+            .doOnNext(hit -> winningStrategies.put(songKey, hit.strategy()))
+            .map(Hit::videos)
+            .defaultIfEmpty(List.of());
+    }
+    
+    // Cached searches cost no quota or latency, so those ranked ahead of the first uncached one go
+    // first in a wave of their own; the rest keep rank order. The remembered strategy (else the
+    // title search) leads, and the budget caps how many uncached searches run
+    private List<List<Attempt>> plan(String title, String artist, Strategy remembered) {
+        List<Strategy> ranked = new ArrayList<>(List.of(Strategy.values()));
+        if (remembered != null) {
+            ranked.remove(remembered);
+            ranked.add(0, remembered);
+        }
+        
+        List<Attempt> leadingCached = new ArrayList<>();
+        List<Attempt> rest = new ArrayList<>();
+        int affordable = quotaBudget / searchCost;
+        for (Strategy strategy : ranked) {
+            Attempt attempt = new Attempt(strategy, strategy.query(title, artist));
+            if (externalAPIsService.isYouTubeSearchCached(attempt.query(), 1)) {
+                (rest.isEmpty() ? leadingCached : rest).add(attempt);
+            } else if (affordable > 0) {
+                affordable--;
+                rest.add(attempt);
+            }
+        }
+        
+        List<List<Attempt>> waves = new ArrayList<>();
+        if (!leadingCached.isEmpty()) {
+            waves.add(leadingCached);
+        }
+        if (!rest.isEmpty()) {
+            // The first uncached search usually finds the video, so it gets a wave to itself
+            // before more quota is spent
+            waves.add(List.of(rest.remove(0)));
+        }
+        for (int i = 0; i < rest.size(); i += waveSize) {
+            waves.add(rest.subList(i, Math.min(i + waveSize, rest.size())));
+        }
+        return waves;
+    }
+}
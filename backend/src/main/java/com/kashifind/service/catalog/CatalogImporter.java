@@ -0,0 +1,285 @@
+package com.kashifind.service.catalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+// Converts a bulk track dump into the binary index read by CatalogIndex. Accepts NDJSON (one
+// track object per line) or CSV with a header row; columns are matched by name:
+// id, title|name, artist, album, genre, year|release_date, duration|duration_ms, popularity,
+// image_url|imageUrl, preview_url|previewUrl, external_url|externalUrl.
+public final class CatalogImporter {
+    
+    private static final Logger log = LoggerFactory.getLogger(CatalogImporter.class);
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    public int importDump(Path dump, Path indexFile) throws IOException {
+        List<CatalogTrack> tracks = dump.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")
+            ? readCsv(dump)
+            : readNdjson(dump);
+        
+        // Ordinals follow popularity, so ascending posting lists are already ranked
+        tracks.sort(Comparator.comparingInt(CatalogTrack::popularity).reversed());
+        
+        Files.createDirectories(indexFile.toAbsolutePath().getParent());
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            write(tracks, out);
+        }
+        Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return tracks.size();
+    }
+    
+    private List<CatalogTrack> readNdjson(Path dump) throws IOException {
+        List<CatalogTrack> tracks = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(dump, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonNode json = objectMapper.readTree(line);
+                    addTrack(tracks, name -> {
+                        JsonNode value = json.get(name);
+                        return value == null || value.isNull() ? null : value.asText();
+                    });
+                } catch (IOException e) {
+                    log.warn("Skipping malformed catalog line {}: {}", lineNumber, e.getMessage());
+                }
+            }
+        }
+        return tracks;
+    }
+    
+    private List<CatalogTrack> readCsv(Path dump) throws IOException {
+        List<CatalogTrack> tracks = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(dump, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return tracks;
+            }
+            List<String> columns = splitCsv(header.replace("﻿", ""));
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                positions.put(columns.get(i).trim(), i);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> values = splitCsv(line);
+                addTrack(tracks, name -> {
+                    Integer position = positions.get(name);
+                    return position == null || position >= values.size() ? null : values.get(position);
+                });
+            }
+        }
+        return tracks;
+    }
+    
+    private static void addTrack(List<CatalogTrack> tracks, Function<String, String> field) {
+        String title = first(field, "title", "name");
+        String artist = first(field, "artist", "artists");
+        if (isBlank(title) || isBlank(artist)) {
+            return;
+        }
+        
+        String year = first(field, "year", "release_date");
+        int durationMs = parseInt(field.apply("duration_ms"));
+        int duration = durationMs > 0 ? durationMs / 1000 : parseInt(field.apply("duration"));
+        tracks.add(new CatalogTrack(
+            first(field, "id"), title, artist, first(field, "album"), first(field, "genre"),
+            first(field, "image_url", "imageUrl"),
+            first(field, "preview_url", "previewUrl"),
+            first(field, "external_url", "externalUrl"),
+            year == null || year.length() < 4 ? 0 : parseInt(year.substring(0, 4)),
+            duration,
+            parseInt(field.apply("popularity"))
+        ));
+    }
+    
+    private static String first(Function<String, String> field, String... names) {
+        for (String name : names) {
+            String value = field.apply(name);
+            if (!isBlank(value)) {
+                return value;
+            }
+        }
+        return null;
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+    
+    private static int parseInt(String value) {
+        if (isBlank(value)) {
+            return 0;
+        }
+        try {
+            return (int) Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    // RFC 4180 fields on a single line: quoted fields may contain commas and "" escapes
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+    
+    private static void write(List<CatalogTrack> tracks, OutputStream target) throws IOException {
+        StringHeap strings = new StringHeap();
+        Map<String, IntList> postings = new HashMap<>();
+        int[][] trackRows = new int[tracks.size()][];
+        
+        for (int ordinal = 0; ordinal < tracks.size(); ordinal++) {
+            CatalogTrack track = tracks.get(ordinal);
+            trackRows[ordinal] = new int[] {
+                strings.ref(track.id()), strings.ref(track.title()), strings.ref(track.artist()),
+                strings.ref(track.album()), strings.ref(track.genre()), strings.ref(track.imageUrl()),
+                strings.ref(track.previewUrl()), strings.ref(track.externalUrl()),
+                track.year(), track.duration(), track.popularity()
+            };
+            
+            String searchable = track.title() + " " + track.artist() + " " + (track.album() == null ? "" : track.album());
+            for (String term : CatalogTokenizer.indexTerms(searchable)) {
+                postings.computeIfAbsent(term, key -> new IntList()).add(ordinal);
+            }
+        }
+        
+        // Terms sorted by UTF-8 bytes so CatalogIndex can binary-search them in place
+        byte[][] terms = postings.keySet().stream()
+            .map(term -> term.getBytes(StandardCharsets.UTF_8))
+            .sorted(Arrays::compareUnsigned)
+            .toArray(byte[][]::new);
+        int postingCount = postings.values().stream().mapToInt(list -> list.size).sum();
+        int[] termRefs = new int[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            termRefs[i] = strings.ref(new String(terms[i], StandardCharsets.UTF_8));
+        }
+        
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(target, 1 << 16))) {
+            out.writeInt(CatalogIndex.MAGIC);
+            out.writeInt(tracks.size());
+            out.writeInt(terms.length);
+            out.writeInt(postingCount);
+            out.writeInt(strings.size());
+            
+            for (int[] row : trackRows) {
+                for (int value : row) {
+                    out.writeInt(value);
+                }
+            }
+            
+            int postingsStart = 0;
+            for (int i = 0; i < terms.length; i++) {
+                IntList list = postings.get(new String(terms[i], StandardCharsets.UTF_8));
+                out.writeInt(termRefs[i]);
+                out.writeInt(postingsStart);
+                out.writeInt(list.size);
+                postingsStart += list.size;
+            }
+            
+            for (byte[] term : terms) {
+                IntList list = postings.get(new String(term, StandardCharsets.UTF_8));
+                for (int i = 0; i < list.size; i++) {
+                    out.writeInt(list.values[i]);
+                }
+            }
+            
+            strings.writeTo(out);
+        }
+    }
+    
+    // Deduplicated length-prefixed UTF-8 strings; a ref is the byte offset, -1 for null
+    private static final class StringHeap {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, Integer> refs = new HashMap<>();
+        
+        int ref(String value) {
+            if (value == null) {
+                return -1;
+            }
+            return refs.computeIfAbsent(value, key -> {
+                int ref = bytes.size();
+                byte[] utf8 = key.getBytes(StandardCharsets.UTF_8);
+                bytes.write(utf8.length >>> 24);
+                bytes.write(utf8.length >>> 16);
+                bytes.write(utf8.length >>> 8);
+                bytes.write(utf8.length);
+                bytes.write(utf8, 0, utf8.length);
+                return ref;
+            });
+        }
+        
+        int size() {
+            return bytes.size();
+        }
+        
+        void writeTo(OutputStream out) throws IOException {
+            bytes.writeTo(out);
+        }
+    }
+    
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+        
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
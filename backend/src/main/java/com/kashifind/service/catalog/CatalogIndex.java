@@ -0,0 +1,247 @@
+package com.kashifind.service.catalog;
+
+import com.kashifind.dto.Song;
+import com.kashifind.service.ExternalAPIsService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Read-only view over a file written by CatalogImporter. Everything stays in the mapped file:
+// track rows and term entries are fixed-width int records, posting lists are ascending track
+// ordinals (ordinal order is popularity order) and strings are decoded only for returned rows.
+//
+// Layout: header | tracks (11 ints) | terms (termRef, start, length) | postings | string heap
+final class CatalogIndex {
+    
+    static final int MAGIC = 0x4B464332; // "KFC2"
+    
+    private static final int HEADER_BYTES = 20;
+    private static final int TRACK_INTS = 11;
+    private static final int TERM_INTS = 3;
+    
+    private final MappedByteBuffer buffer;
+    private final int trackCount;
+    private final int termCount;
+    private final int tracksStart;
+    private final int termsStart;
+    private final int postingsStart;
+    private final int stringsStart;
+    private final List<String> genres;
+    private final List<Integer> years;
+    
+    private CatalogIndex(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a catalog index");
+        }
+        this.trackCount = buffer.getInt(4);
+        this.termCount = buffer.getInt(8);
+        int postingCount = buffer.getInt(12);
+        int stringBytes = buffer.getInt(16);
+        this.tracksStart = HEADER_BYTES;
+        this.termsStart = tracksStart + trackCount * TRACK_INTS * 4;
+        this.postingsStart = termsStart + termCount * TERM_INTS * 4;
+        this.stringsStart = postingsStart + postingCount * 4;
+        if ((long) stringsStart + stringBytes != buffer.capacity()) {
+            throw new IOException("Truncated catalog index");
+        }
+        
+        Set<String> genreSet = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        Set<Integer> yearSet = new TreeSet<>((a, b) -> Integer.compare(b, a));
+        for (int ordinal = 0; ordinal < trackCount; ordinal++) {
+            String genre = string(field(ordinal, 4));
+            if (genre != null && !genre.isBlank()) {
+                genreSet.add(genre);
+            }
+            int year = field(ordinal, 8);
+            if (year > 0) {
+                yearSet.add(year);
+            }
+        }
+        this.genres = List.copyOf(genreSet);
+        this.years = List.copyOf(yearSet);
+    }
+    
+    // Single mapping, so index files are limited to 2 GB
+    static CatalogIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new CatalogIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+    
+    // False for files written by an older importer, whose terms a query may not find
+    static boolean isCurrentFormat(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            return channel.read(magic, 0) == 4 && magic.getInt(0) == MAGIC;
+        }
+    }
+    
+    int size() {
+        return trackCount;
+    }
+    
+    List<String> genres() {
+        return genres;
+    }
+    
+    List<Integer> years() {
+        return years;
+    }
+    
+    // Tracks containing every query term, most popular first. genre/year of null mean "any".
+    ExternalAPIsService.SearchPage search(String query, int offset, int limit, String genre, Integer year) {
+        Set<String> terms = CatalogTokenizer.queryTerms(query);
+        if (terms.isEmpty()) {
+            return ExternalAPIsService.SearchPage.EMPTY;
+        }
+        
+        // Intersect by walking the shortest posting list and probing the others
+        int[] starts = new int[terms.size()];
+        int[] lengths = new int[terms.size()];
+        int termIndex = 0;
+        int shortest = 0;
+        for (String term : terms) {
+            int entry = findTerm(term.getBytes(StandardCharsets.UTF_8));
+            if (entry < 0) {
+                return ExternalAPIsService.SearchPage.EMPTY;
+            }
+            int base = termsStart + entry * TERM_INTS * 4;
+            starts[termIndex] = buffer.getInt(base + 4);
+            lengths[termIndex] = buffer.getInt(base + 8);
+            if (lengths[termIndex] < lengths[shortest]) {
+                shortest = termIndex;
+            }
+            termIndex++;
+        }
+        
+        Map<Integer, Boolean> genreMatches = genre == null ? null : new HashMap<>();
+        List<Song> items = new ArrayList<>(Math.min(limit, 64));
+        int total = 0;
+        for (int i = 0; i < lengths[shortest]; i++) {
+            int ordinal = posting(starts[shortest] + i);
+            if (!inAll(ordinal, starts, lengths, shortest)) {
+                continue;
+            }
+            if (year != null && field(ordinal, 8) != year) {
+                continue;
+            }
+            // Strings are deduplicated, so each distinct genre is decoded once per search
+            if (genreMatches != null && !genreMatches.computeIfAbsent(field(ordinal, 4),
+                    ref -> genre.equalsIgnoreCase(string(ref)))) {
+                continue;
+            }
+            if (total >= offset && items.size() < limit) {
+                items.add(toResult(ordinal));
+            }
+            total++;
+        }
+        return new ExternalAPIsService.SearchPage(items, total);
+    }
+    
+    private boolean inAll(int ordinal, int[] starts, int[] lengths, int skip) {
+        for (int t = 0; t < starts.length; t++) {
+            if (t != skip && !contains(starts[t], lengths[t], ordinal)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private boolean contains(int start, int length, int ordinal) {
+        int low = 0;
+        int high = length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = posting(start + mid);
+            if (value < ordinal) {
+                low = mid + 1;
+            } else if (value > ordinal) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private int findTerm(byte[] term) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareString(buffer.getInt(termsStart + mid * TERM_INTS * 4), term);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+    
+    // Unsigned byte comparison of a heap string against the probe, without decoding it
+    private int compareString(int ref, byte[] probe) {
+        int position = stringsStart + ref;
+        int length = buffer.getInt(position);
+        position += 4;
+        int common = Math.min(length, probe.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(buffer.get(position + i) & 0xFF, probe[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, probe.length);
+    }
+    
+    private int posting(int index) {
+        return buffer.getInt(postingsStart + index * 4);
+    }
+    
+    private int field(int ordinal, int column) {
+        return buffer.getInt(tracksStart + (ordinal * TRACK_INTS + column) * 4);
+    }
+    
+    private String string(int ref) {
+        if (ref < 0) {
+            return null;
+        }
+        int position = stringsStart + ref;
+        byte[] bytes = new byte[buffer.getInt(position)];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    // Same shape as the Spotify search rows so the frontend renders both alike
+    private Song toResult(int ordinal) {
+        int year = field(ordinal, 8);
+        return new Song(
+            string(field(ordinal, 0)),
+            string(field(ordinal, 1)),
+            string(field(ordinal, 2)),
+            string(field(ordinal, 3)),
+            year > 0 ? String.valueOf(year) : null,
+            field(ordinal, 9),
+            string(field(ordinal, 6)),
+            string(field(ordinal, 5)),
+            string(field(ordinal, 7)),
+            string(field(ordinal, 4)),
+            field(ordinal, 10),
+            "catalog",
+            null);
+    }
+}
@@ -0,0 +1,91 @@
+package com.kashifind.service.catalog;
+
+import com.kashifind.service.ExternalAPIsService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Local track catalog served ahead of Spotify. On startup the dump (if configured) is imported
+// into the binary index when the index is missing or older than the dump, then the index is
+// mapped. Until that finishes - or when no catalog exists - searches return nothing locally.
+@Service
+public class CatalogService {
+    
+    private static final Logger log = LoggerFactory.getLogger(CatalogService.class);
+    
+    private final Path indexFile;
+    private final Path dumpFile;
+    private final boolean enabled;
+    private volatile CatalogIndex index;
+    
+    public CatalogService(
+            @Value("${app.catalog.enabled:true}") boolean enabled,
+            @Value("${app.catalog.index-file:data/catalog/catalog.idx}") String indexFile,
+            @Value("${app.catalog.dump:}") String dumpFile) {
+        this.enabled = enabled;
+        this.indexFile = Path.of(indexFile);
+        this.dumpFile = dumpFile == null || dumpFile.isBlank() ? null : Path.of(dumpFile);
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // Importing a large dump takes a while; don't hold up startup for it
+        Thread loader = new Thread(this::load, "catalog-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+    
+    private void load() {
+        try {
+            if (dumpFile != null && Files.exists(dumpFile) && isStale()) {
+                long started = System.nanoTime();
+                int count = new CatalogImporter().importDump(dumpFile, indexFile);
+                log.info("Imported {} catalog tracks from {} in {}ms", count, dumpFile,
+                    (System.nanoTime() - started) / 1_000_000);
+            }
+            if (Files.exists(indexFile)) {
+                index = CatalogIndex.open(indexFile);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to load catalog: {}", e.getMessage());
+        }
+    }
+    
+    private boolean isStale() throws IOException {
+        return !Files.exists(indexFile)
+            || !CatalogIndex.isCurrentFormat(indexFile)
+            || Files.getLastModifiedTime(indexFile).compareTo(Files.getLastModifiedTime(dumpFile)) < 0;
+    }
+    
+    public boolean isLoaded() {
+        return index != null;
+    }
+    
+    public ExternalAPIsService.SearchPage search(String query, int offset, int limit, String genre, Integer year) {
+        CatalogIndex current = index;
+        if (current == null || limit <= 0) {
+            return ExternalAPIsService.SearchPage.EMPTY;
+        }
+        return current.search(query, offset, limit, genre, year);
+    }
+    
+    public List<String> genres() {
+        CatalogIndex current = index;
+        return current == null ? List.of() : current.genres();
+    }
+    
+    public List<Integer> years() {
+        CatalogIndex current = index;
+        return current == null ? List.of() : current.years();
+    }
+}
@@ -0,0 +1,77 @@
+package com.kashifind.service.catalog;
+
+import com.kashifind.service.UpstreamCache;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Splits catalog text into index terms. Latin/digit runs become whole words; runs of kana and
+// kanji have no spaces, so they become overlapping bigrams. Tracks are also indexed under each
+// CJK character so a one-character query ("夜") matches inside longer runs; queries of two or
+// more characters look up bigrams only, a lone character as itself.
+final class CatalogTokenizer {
+    
+    private CatalogTokenizer() {}
+    
+    static Set<String> indexTerms(String text) {
+        return terms(text, true);
+    }
+    
+    static Set<String> queryTerms(String text) {
+        return terms(text, false);
+    }
+    
+    private static Set<String> terms(String text, boolean unigrams) {
+        Set<String> terms = new LinkedHashSet<>();
+        String normalized = UpstreamCache.normalize(text);
+        int length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = normalized.codePointAt(i);
+            if (isCjk(codePoint)) {
+                int start = i;
+                while (i < length && isCjk(normalized.codePointAt(i))) {
+                    i += Character.charCount(normalized.codePointAt(i));
+                }
+                addBigrams(normalized.substring(start, i), unigrams, terms);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                int start = i;
+                while (i < length) {
+                    int next = normalized.codePointAt(i);
+                    if (!Character.isLetterOrDigit(next) || isCjk(next)) {
+                        break;
+                    }
+                    i += Character.charCount(next);
+                }
+                terms.add(normalized.substring(start, i));
+            } else {
+                i += Character.charCount(codePoint);
+            }
+        }
+        return terms;
+    }
+    
+    private static void addBigrams(String run, boolean unigrams, Set<String> terms) {
+        int[] codePoints = run.codePoints().toArray();
+        if (codePoints.length == 1) {
+            terms.add(run);
+            return;
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            terms.add(new String(codePoints, i, 2));
+        }
+        if (unigrams) {
+            for (int codePoint : codePoints) {
+                terms.add(Character.toString(codePoint));
+            }
+        }
+    }
+    
+    static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+            || script == Character.UnicodeScript.HIRAGANA
+            || script == Character.UnicodeScript.KATAKANA
+            || codePoint == 'ー';
+    }
+}
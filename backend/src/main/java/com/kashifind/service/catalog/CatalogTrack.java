@@ -0,0 +1,6 @@
+package com.kashifind.service.catalog;
+
+// One row of a catalog dump. Only title and artist are required.
+record CatalogTrack(String id, String title, String artist, String album, String genre,
+                    String imageUrl, String previewUrl, String externalUrl,
+                    int year, int duration, int popularity) {}
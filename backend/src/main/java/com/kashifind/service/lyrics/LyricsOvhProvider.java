@@ -0,0 +1,51 @@
+package com.kashifind.service.lyrics;
+
+import com.kashifind.dto.Lyrics;
+import com.kashifind.service.UpstreamClients;
+import com.kashifind.service.UpstreamJson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+// lyrics.ovh (free, no API key needed)
+@Component
+public class LyricsOvhProvider implements LyricsProvider {
+    
+    private final WebClient webClient;
+    private final int priority;
+    private final String baseUrl;
+    
+    public LyricsOvhProvider(@Value("${app.lyrics.providers.lyrics-ovh.priority:10}") int priority,
+                             @Value("${app.lyrics.providers.lyrics-ovh.url:https://api.lyrics.ovh}") String baseUrl,
+                             UpstreamClients clients) {
+        this.baseUrl = baseUrl;
+        this.webClient = clients.client("lyrics-ovh", baseUrl, true);
+        this.priority = priority;
+    }
+    
+    @Override
+    public String name() {
+        return "lyrics-ovh";
+    }
+    
+    @Override
+    public int priority() {
+        return priority;
+    }
+    
+    @Override
+    public Mono<Lyrics> fetch(LyricsQuery query) {
+        String url = String.format("%s/v1/%s/%s", baseUrl,
+            URLEncoder.encode(query.artist(), StandardCharsets.UTF_8),
+            URLEncoder.encode(query.title(), StandardCharsets.UTF_8));
+        
+        return UpstreamJson.decode(webClient.get()
+                .uri(url)
+                .retrieve(),
+            parser -> UpstreamJson.lyrics(parser, "lyrics.ovh"));
+    }
+}
@@ -0,0 +1,21 @@
+package com.kashifind.service.lyrics;
+
+import com.kashifind.dto.Lyrics;
+import reactor.core.publisher.Mono;
+
+// A source of song lyrics. Implementations are Spring beans and are picked up by
+// LyricsProviderChain automatically; lower priority values are asked first.
+public interface LyricsProvider {
+    
+    String name();
+    
+    int priority();
+    
+    // Whether this provider can answer the query at all (e.g. needs a Spotify track ID)
+    default boolean supports(LyricsQuery query) {
+        return true;
+    }
+    
+    // Emits the lyrics, or completes empty when the source has none
+    Mono<Lyrics> fetch(LyricsQuery query);
+}
@@ -0,0 +1,91 @@
+package com.kashifind.service.lyrics;
+
+import com.kashifind.dto.Lyrics;
+import com.kashifind.service.UpstreamGuard;
+import com.kashifind.service.UpstreamGuards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Asks lyrics providers in priority order, hedged: the next provider starts once the previous
+// one has had hedge-delay to answer, or right away if it came back empty or failed. Results are
+// taken in priority order: a lower-priority answer that arrives first waits until every provider
+// ahead of it has come back empty or run into the deadline. The winner cancels every other
+// attempt, and nothing outlives the deadline.
+// A hedge-delay of 0 queries all providers in parallel. Each provider has its own UpstreamGuard
+// (app.upstreams.<provider>.lyrics), so an unhealthy provider is skipped at once while its
+// breaker is open and the chain moves straight on to the next.
+@Service
+public class LyricsProviderChain {
+    
+    private static final Logger log = LoggerFactory.getLogger(LyricsProviderChain.class);
+    
+    private final List<LyricsProvider> providers;
+    private final Duration hedgeDelay;
+    private final Duration deadline;
+    // Losing hedges show up as outcome=cancelled
+    private final Map<LyricsProvider, UpstreamGuard> calls = new IdentityHashMap<>();
+    
+    public LyricsProviderChain(List<LyricsProvider> providers,
+                               @Value("${app.lyrics.hedge-delay:400ms}") Duration hedgeDelay,
+                               @Value("${app.lyrics.deadline:5s}") Duration deadline,
+                               UpstreamGuards guards) {
+        this.providers = providers.stream()
+            .sorted(Comparator.comparingInt(LyricsProvider::priority))
+            .toList();
+        this.providers.forEach(provider -> calls.put(provider, guards.guard(provider.name(), "lyrics")));
+        this.hedgeDelay = hedgeDelay;
+        this.deadline = deadline;
+    }
+    
+    public Mono<Lyrics> fetch(LyricsQuery query) {
+        List<LyricsProvider> eligible = providers.stream()
+            .filter(provider -> provider.supports(query))
+            .toList();
+        long deadlineAt = System.nanoTime() + deadline.toNanos();
+        return hedge(eligible, 0, query, deadlineAt).next();
+    }
+    
+    private Flux<Lyrics> hedge(List<LyricsProvider> eligible, int index, LyricsQuery query, long deadlineAt) {
+        if (index >= eligible.size()) {
+            return Flux.empty();
+        }
+        
+        LyricsProvider provider = eligible.get(index);
+        Sinks.Empty<Void> gaveUp = Sinks.empty();
+        Mono<Lyrics> current = calls.get(provider).call(provider.fetch(query))
+            .filter(Lyrics::hasText)
+            .onErrorResume(e -> {
+                log.warn("Lyrics provider {} failed: {}", provider.name(), e.getMessage());
+                return Mono.empty();
+            })
+            // Each call gets what's left of the deadline, so a lower-priority answer held back for
+            // this one is still used when this one runs out of time
+            .timeout(Duration.ofNanos(Math.max(0, deadlineAt - System.nanoTime())), Mono.empty())
+            .doOnSuccess(result -> {
+                if (result == null) {
+                    gaveUp.tryEmitEmpty();
+                }
+            });
+        
+        if (index + 1 >= eligible.size()) {
+            return current.flux();
+        }
+        
+        Flux<Lyrics> next = Mono.firstWithSignal(Mono.delay(hedgeDelay).then(), gaveUp.asMono())
+            .thenMany(Flux.defer(() -> hedge(eligible, index + 1, query, deadlineAt)));
+        
+        // Both run at once, but this provider's result is emitted ahead of the later ones
+        return Flux.mergeSequential(current, next);
+    }
+}
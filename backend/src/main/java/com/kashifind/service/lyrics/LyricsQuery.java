@@ -0,0 +1,8 @@
+package com.kashifind.service.lyrics;
+
+public record LyricsQuery(String title, String artist, String spotifyTrackId) {
+    
+    public boolean hasSpotifyTrackId() {
+        return spotifyTrackId != null && !spotifyTrackId.isEmpty();
+    }
+}
@@ -0,0 +1,413 @@
+package com.kashifind.service.lyrics;
+
+import com.kashifind.service.JapaneseTextProcessor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Full-text index over lyrics the backend has fetched. Lyrics are folded to kana through
+// JapaneseTextProcessor so "夜に駆ける" and "よるにかける" meet, then indexed as character
+// bigrams and trigrams within each line. A posting list is the ascending document ids of the
+// songs containing the gram, delta + varint encoded into a growable byte array; songs only
+// ever get new, higher ids, so indexing appends to the lists in place. A replaced song's old id
+// stays in the lists as a tombstone until the tombstones pass rebuild-threshold of all ids, when
+// the lists are rewritten without them.
+//
+// A query matches songs containing at least min-match of its grams (trigrams, or bigrams for
+// two-character queries); more matching grams rank higher, then newer songs.
+@Component
+public class LyricsSearchIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(LyricsSearchIndex.class);
+    
+    private final JapaneseTextProcessor japaneseProcessor;
+    private final LyricsStore lyricsStore;
+    private final boolean enabled;
+    private final double minMatch;
+    private final double rebuildThreshold;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private GramTable grams = new GramTable();
+    private final Map<String, Integer> docsByKey = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+    private final ThreadPoolExecutor indexer;
+    
+    public LyricsSearchIndex(JapaneseTextProcessor japaneseProcessor, LyricsStore lyricsStore,
+                             @Value("${app.lyrics-search.enabled:true}") boolean enabled,
+                             @Value("${app.lyrics-search.min-match:0.75}") double minMatch,
+                             @Value("${app.lyrics-search.queue-size:10000}") int queueSize,
+                             @Value("${app.lyrics-search.rebuild-threshold:0.5}") double rebuildThreshold) {
+        this.japaneseProcessor = japaneseProcessor;
+        this.lyricsStore = lyricsStore;
+        this.enabled = enabled;
+        this.minMatch = minMatch;
+        this.rebuildThreshold = rebuildThreshold;
+        // Tokenizing a song takes milliseconds, so indexing runs off the request path. When the
+        // queue is full new songs are dropped; they are picked up from the store on next start.
+        this.indexer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(queueSize), runnable -> {
+                Thread thread = new Thread(runnable, "lyrics-indexer");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        indexer.execute(() -> {
+            long started = System.nanoTime();
+            lyricsStore.forEach(entry -> {
+                if (entry.title() == null || entry.artist() == null) {
+                    return;
+                }
+                String trackId = entry.keys().stream().filter(key -> key.startsWith("track:"))
+                    .map(key -> key.substring("track:".length())).findFirst().orElse(null);
+                index(LyricsStore.songKey(entry.artist(), entry.title()), entry.title(), entry.artist(), trackId,
+                    entry.lyrics().original());
+            });
+            log.info("Indexed {} stored lyrics for search in {}ms", size(), (System.nanoTime() - started) / 1_000_000);
+        });
+    }
+    
+    @PreDestroy
+    public void stop() {
+        indexer.shutdownNow();
+    }
+    
+    // Queues a song for indexing; re-adding a song with changed lyrics replaces it
+    public void add(String title, String artist, String spotifyTrackId, String lyrics) {
+        if (!enabled || lyrics == null || lyrics.isEmpty()) {
+            return;
+        }
+        indexer.execute(() -> index(LyricsStore.songKey(artist, title), title, artist, spotifyTrackId, lyrics));
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size() - deleted.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void index(String key, String title, String artist, String spotifyTrackId, String lyrics) {
+        int hash = lyrics.hashCode();
+        lock.readLock().lock();
+        try {
+            Integer existing = docsByKey.get(key);
+            if (existing != null && docs.get(existing).hash() == hash) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        // Tokenize before taking the write lock so searches aren't blocked behind kuromoji
+        long[] docGrams = gramsOf(japaneseProcessor.toSearchKana(lyrics), true);
+        
+        lock.writeLock().lock();
+        try {
+            Integer existing = docsByKey.get(key);
+            if (existing != null) {
+                deleted.set(existing);
+            }
+            int doc = docs.size();
+            docs.add(new Doc(title, artist, spotifyTrackId, hash));
+            docsByKey.put(key, doc);
+            for (long gram : docGrams) {
+                grams.append(gram, doc);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to index lyrics: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        if (deleted.cardinality() > docs.size() * rebuildThreshold) {
+            rebuild();
+        }
+    }
+    
+    // Drops the tombstoned ids and renumbers the live songs in order, so every posting list
+    // stays ascending. Runs on the indexer thread, the only writer, so the new lists are built
+    // without the lock and searches only wait for the swap.
+    private void rebuild() {
+        long started = System.nanoTime();
+        int[] renumbered = new int[docs.size()];
+        List<Doc> live = new ArrayList<>(docs.size() - deleted.cardinality());
+        for (int doc = 0; doc < docs.size(); doc++) {
+            renumbered[doc] = deleted.get(doc) ? -1 : live.size();
+            if (!deleted.get(doc)) {
+                live.add(docs.get(doc));
+            }
+        }
+        GramTable rebuilt = grams.renumbered(renumbered);
+        int reclaimed = docs.size() - live.size();
+        
+        lock.writeLock().lock();
+        try {
+            grams = rebuilt;
+            docs.clear();
+            docs.addAll(live);
+            docsByKey.replaceAll((key, doc) -> renumbered[doc]);
+            deleted.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Rebuilt lyrics search index without {} replaced songs in {}ms", reclaimed,
+            (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    public List<Map<String, Object>> search(String query, int limit) {
+        long[] queryGrams = gramsOf(japaneseProcessor.toSearchKana(query), false);
+        if (queryGrams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            // Grams absent from the index simply count as misses
+            List<Cursor> present = new ArrayList<>(queryGrams.length);
+            for (long gram : queryGrams) {
+                int slot = grams.slot(gram);
+                if (slot >= 0) {
+                    present.add(new Cursor(grams.postings[slot], grams.sizes[slot]));
+                }
+            }
+            Cursor[] cursors = present.toArray(Cursor[]::new);
+            int required = Math.max(1, (int) Math.ceil(queryGrams.length * minMatch));
+            if (cursors.length < required) {
+                return List.of();
+            }
+            
+            // Merge the sorted lists, counting how many grams each song contains; the heap
+            // keeps the best `limit` by (count, doc)
+            PriorityQueue<long[]> best = new PriorityQueue<>(limit + 1,
+                (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+            while (true) {
+                int doc = Integer.MAX_VALUE;
+                for (Cursor cursor : cursors) {
+                    if (cursor.doc >= 0 && cursor.doc < doc) {
+                        doc = cursor.doc;
+                    }
+                }
+                if (doc == Integer.MAX_VALUE) {
+                    break;
+                }
+                int count = 0;
+                for (Cursor cursor : cursors) {
+                    if (cursor.doc == doc) {
+                        count++;
+                        cursor.next();
+                    }
+                }
+                // Later docs win ties, so only a strictly lower count can be skipped outright
+                boolean full = best.size() == limit;
+                if (count >= required && (!full || count >= best.peek()[0]) && !deleted.get(doc)) {
+                    best.add(new long[] {count, doc});
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+            
+            List<Map<String, Object>> results = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                long[] entry = best.poll();
+                Doc doc = docs.get((int) entry[1]);
+                Map<String, Object> result = new HashMap<>();
+                result.put("title", doc.title());
+                result.put("artist", doc.artist());
+                result.put("spotifyTrackId", doc.spotifyTrackId());
+                result.put("score", (double) entry[0] / queryGrams.length);
+                results.add(0, result);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Packs each 2- and 3-char window of a line into a long: length tag in the top bits, then
+    // the UTF-16 chars. Documents index both sizes; a query uses trigrams when it has any.
+    private static long[] gramsOf(String kana, boolean bothSizes) {
+        Set<Long> result = new LinkedHashSet<>();
+        String[] lines = kana.split("\n");
+        boolean anyTrigram = Arrays.stream(lines).anyMatch(line -> line.length() >= 3);
+        for (String line : lines) {
+            for (int i = 0; i + 1 < line.length(); i++) {
+                long bigram = (2L << 48) | ((long) line.charAt(i) << 16) | line.charAt(i + 1);
+                if (bothSizes || !anyTrigram) {
+                    result.add(bigram);
+                }
+                if (i + 2 < line.length() && (bothSizes || anyTrigram)) {
+                    result.add((3L << 48) | ((long) line.charAt(i) << 32)
+                        | ((long) line.charAt(i + 1) << 16) | line.charAt(i + 2));
+                }
+            }
+        }
+        return result.stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    private record Doc(String title, String artist, String spotifyTrackId, int hash) {}
+    
+    // Decodes one posting list; doc is -1 once exhausted
+    private static final class Cursor {
+        private final byte[] data;
+        private final int size;
+        private int position;
+        private int doc;
+        
+        Cursor(byte[] data, int size) {
+            this.data = data;
+            this.size = size;
+            // The first delta is relative to 0, i.e. the first doc id itself
+            next();
+        }
+        
+        void next() {
+            if (position >= size) {
+                doc = -1;
+                return;
+            }
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += delta;
+        }
+    }
+    
+    // Open-addressing map from packed gram to a slot in parallel posting arrays
+    private static final class GramTable {
+        private long[] keys = new long[1 << 16];
+        private int[] slots = new int[1 << 16];
+        private int count;
+        private byte[][] postings = new byte[1 << 12][];
+        private int[] sizes = new int[1 << 12];
+        private int[] lastDocs = new int[1 << 12];
+        
+        GramTable() {
+            Arrays.fill(slots, -1);
+        }
+        
+        int slot(long gram) {
+            int mask = keys.length - 1;
+            for (int i = mix(gram) & mask; ; i = (i + 1) & mask) {
+                if (slots[i] < 0) {
+                    return -1;
+                }
+                if (keys[i] == gram) {
+                    return slots[i];
+                }
+            }
+        }
+        
+        void append(long gram, int doc) {
+            int slot = slot(gram);
+            if (slot < 0) {
+                slot = insert(gram);
+            }
+            byte[] data = postings[slot];
+            int size = sizes[slot];
+            if (size + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(8, data.length * 2));
+                postings[slot] = data;
+            }
+            int delta = doc - lastDocs[slot];
+            while ((delta & ~0x7F) != 0) {
+                data[size++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[size++] = (byte) delta;
+            sizes[slot] = size;
+            lastDocs[slot] = doc;
+        }
+        
+        private int insert(long gram) {
+            if ((count + 1) * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+            if (count == postings.length) {
+                postings = Arrays.copyOf(postings, count * 2);
+                sizes = Arrays.copyOf(sizes, count * 2);
+                lastDocs = Arrays.copyOf(lastDocs, count * 2);
+            }
+            int slot = count++;
+            postings[slot] = new byte[4];
+            put(gram, slot);
+            return slot;
+        }
+        
+        private void put(long gram, int slot) {
+            int mask = keys.length - 1;
+            int i = mix(gram) & mask;
+            while (slots[i] >= 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = gram;
+            slots[i] = slot;
+        }
+        
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldSlots = slots;
+            keys = new long[capacity];
+            slots = new int[capacity];
+            Arrays.fill(slots, -1);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldSlots[i] >= 0) {
+                    put(oldKeys[i], oldSlots[i]);
+                }
+            }
+        }
+        
+        // A copy holding each doc under its new id, leaving out docs renumbered to -1 and the
+        // grams only they contained
+        GramTable renumbered(int[] renumbered) {
+            GramTable copy = new GramTable();
+            for (int i = 0; i < keys.length; i++) {
+                if (slots[i] < 0) {
+                    continue;
+                }
+                for (Cursor cursor = new Cursor(postings[slots[i]], sizes[slots[i]]); cursor.doc >= 0; cursor.next()) {
+                    if (renumbered[cursor.doc] >= 0) {
+                        copy.append(keys[i], renumbered[cursor.doc]);
+                    }
+                }
+            }
+            return copy;
+        }
+        
+        private static int mix(long gram) {
+            long h = gram * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,540 @@
+package com.kashifind.service.lyrics;
+
+import com.kashifind.service.UpstreamCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Embedded on-disk lyrics store: an append-only log of segment files with an in-memory index
+// from "track:<id>" and "song:<artist>|<title>" keys to record locations. Segments are
+// memory-mapped and reads are absolute gets against the mapping. Overwritten records are
+// garbage that background compaction reclaims by copying live records forward.
+//
+// Record layout: int payloadLength, int crc32(payload), payload =
+//   short keyCount, keyCount x (short len, utf8), 6 x (int len or -1 for null, utf8)
+//   for title, artist, source, original, hiragana, romaji.
+// A zero length marks the end of a segment's data.
+@Component
+public class LyricsStore {
+    
+    private static final Logger log = LoggerFactory.getLogger(LyricsStore.class);
+    
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int HEADER_BYTES = 8;
+    
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final Duration compactionInterval;
+    private final double compactionThreshold;
+    
+    private final ConcurrentHashMap<String, Long> index = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Object writeLock = new Object();
+    private volatile Segment active;
+    private ScheduledExecutorService compactor;
+    
+    public LyricsStore(@Value("${app.lyrics-store.enabled:true}") boolean enabled,
+                       @Value("${app.lyrics-store.dir:data/lyrics}") String directory,
+                       @Value("${app.lyrics-store.segment-size:67108864}") int segmentSize,
+                       @Value("${app.lyrics-store.compaction-interval:10m}") Duration compactionInterval,
+                       @Value("${app.lyrics-store.compaction-threshold:0.5}") double compactionThreshold) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentSize = segmentSize;
+        this.compactionInterval = compactionInterval;
+        this.compactionThreshold = compactionThreshold;
+    }
+    
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+            }
+            // Every existing segment is sealed on startup; new writes go to a fresh one
+            int nextId = 0;
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int id = Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                Segment segment = Segment.seal(id, file);
+                segments.put(id, segment);
+                segment.scan((location, keys) -> {
+                    for (String key : keys) {
+                        Long previous = index.put(key, location);
+                        if (previous != null) {
+                            supersede(previous);
+                        }
+                    }
+                });
+                nextId = id + 1;
+            }
+            synchronized (writeLock) {
+                active = Segment.create(nextId, segmentFile(nextId), segmentSize);
+                segments.put(nextId, active);
+            }
+            log.info("Lyrics store opened with {} keys in {} segments", index.size(), segments.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Lyrics store unavailable, continuing without it: {}", e.getMessage());
+            index.clear();
+            segments.clear();
+            active = null;
+            return;
+        }
+        
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lyrics-store-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = compactionInterval.toMillis();
+        compactor.scheduleWithFixedDelay(this::compact, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void close() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+        }
+        synchronized (writeLock) {
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        }
+    }
+    
+    public static String trackKey(String spotifyTrackId) {
+        return "track:" + spotifyTrackId.trim();
+    }
+    
+    public static String songKey(String artist, String title) {
+        return "song:" + UpstreamCache.normalize(artist) + "|" + UpstreamCache.normalize(title);
+    }
+    
+    // Looks the song up by track ID first, then by artist/title
+    public Optional<StoredLyrics> find(String title, String artist, String spotifyTrackId) {
+        if (spotifyTrackId != null && !spotifyTrackId.isEmpty()) {
+            Optional<StoredLyrics> byTrack = get(trackKey(spotifyTrackId));
+            if (byTrack.isPresent()) {
+                return byTrack;
+            }
+        }
+        return get(songKey(artist, title));
+    }
+    
+    public Optional<StoredLyrics> get(String key) {
+        if (active == null) {
+            return Optional.empty();
+        }
+        // A concurrent compaction may retire the segment between the index read and the
+        // segment lookup; the index already points at the copy by then, so look again
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Long location = index.get(key);
+            if (location == null) {
+                return Optional.empty();
+            }
+            Segment segment = segments.get(segmentId(location));
+            if (segment != null) {
+                return Optional.of(segment.read(offset(location)).lyrics());
+            }
+        }
+        return Optional.empty();
+    }
+    
+    // The track ID must come from Spotify's own track lookup: find answers a track ID from its
+    // track: key before it looks at the title or artist
+    public void put(String title, String artist, String spotifyTrackId, StoredLyrics lyrics) {
+        List<String> keys = new ArrayList<>(2);
+        keys.add(songKey(artist, title));
+        if (spotifyTrackId != null && !spotifyTrackId.isEmpty()) {
+            keys.add(trackKey(spotifyTrackId));
+        }
+        put(keys, title, artist, lyrics, false);
+    }
+    
+    // Replaces the record stored for title/artist, still filed under the track IDs it had, so
+    // lookups by track ID see the new version without trusting a caller-supplied ID
+    public void update(String title, String artist, StoredLyrics lyrics) {
+        put(new ArrayList<>(List.of(songKey(artist, title))), title, artist, lyrics, true);
+    }
+    
+    private void put(List<String> keys, String title, String artist, StoredLyrics lyrics, boolean keepTrackKeys) {
+        if (active == null) {
+            return;
+        }
+        try {
+            synchronized (writeLock) {
+                if (keepTrackKeys) {
+                    keys.addAll(trackKeysOf(keys.get(0)));
+                }
+                long location = append(encode(keys, title, artist, lyrics), keys.size());
+                for (String key : keys) {
+                    Long previous = index.put(key, location);
+                    if (previous != null) {
+                        supersede(previous);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write lyrics to store: {}", e.getMessage());
+        }
+    }
+    
+    // Caller holds writeLock, so compaction can't move the record meanwhile
+    private List<String> trackKeysOf(String songKey) {
+        Long location = index.get(songKey);
+        Segment segment = location == null ? null : segments.get(segmentId(location));
+        if (segment == null) {
+            return List.of();
+        }
+        return segment.read(offset(location)).keys().stream()
+            .filter(key -> key.startsWith("track:") && location.equals(index.get(key)))
+            .toList();
+    }
+    
+    public int size() {
+        return index.size();
+    }
+    
+    // Visits each live record once, in log order
+    public void forEach(Consumer<Entry> visitor) {
+        for (Segment segment : segments.values()) {
+            segment.scan((location, keys) -> {
+                if (isLive(location, keys)) {
+                    visitor.accept(segment.read(offset(location)));
+                }
+            });
+        }
+    }
+    
+    // Caller holds writeLock
+    private long append(byte[] payload, int keyCount) throws IOException {
+        int needed = HEADER_BYTES + payload.length;
+        if (needed + 4 > segmentSize) {
+            throw new IOException("Record of " + payload.length + " bytes exceeds segment size");
+        }
+        if (active.position + needed + 4 > active.capacity) {
+            roll();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        int offset = active.position;
+        active.buffer.putInt(offset + 4, (int) crc.getValue());
+        active.buffer.put(offset + HEADER_BYTES, payload);
+        // The length goes in last so a torn write reads as end-of-data on recovery
+        active.buffer.putInt(offset, payload.length);
+        active.position = offset + needed;
+        active.keysWritten.addAndGet(keyCount);
+        return location(active.id, offset);
+    }
+    
+    // Caller holds writeLock
+    private void roll() throws IOException {
+        Segment sealed = active.sealInPlace();
+        segments.put(sealed.id, sealed);
+        int nextId = active.id + 1;
+        active = Segment.create(nextId, segmentFile(nextId), segmentSize);
+        segments.put(nextId, active);
+    }
+    
+    private void supersede(long location) {
+        Segment segment = segments.get(segmentId(location));
+        if (segment != null) {
+            segment.superseded.incrementAndGet();
+        }
+    }
+    
+    private boolean isLive(long location, List<String> keys) {
+        for (String key : keys) {
+            Long current = index.get(key);
+            if (current != null && current == location) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Copies the live records of mostly-dead or undersized sealed segments into the active
+    // segment, repoints their keys, then deletes the old files
+    void compact() {
+        for (Segment segment : List.copyOf(segments.values())) {
+            if (segment == active || !segment.sealed) {
+                continue;
+            }
+            int written = segment.keysWritten.get();
+            double garbage = written == 0 ? 1.0 : (double) segment.superseded.get() / written;
+            boolean small = segment.capacity < segmentSize / 4;
+            if (garbage < compactionThreshold && !small) {
+                continue;
+            }
+            try {
+                segment.scan((location, keys) -> {
+                    Entry entry = segment.read(offset(location));
+                    try {
+                        synchronized (writeLock) {
+                            // Only keys still pointing here move; the copy must not carry keys
+                            // that newer records own, or replay on restart would resurrect it
+                            List<String> liveKeys = keys.stream()
+                                .filter(key -> location.equals(index.get(key)))
+                                .toList();
+                            if (liveKeys.isEmpty()) {
+                                return;
+                            }
+                            long moved = append(encode(liveKeys, entry.title(), entry.artist(), entry.lyrics()),
+                                liveKeys.size());
+                            for (String key : liveKeys) {
+                                index.replace(key, location, moved);
+                            }
+                        }
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                segments.remove(segment.id);
+                segment.close();
+                Files.deleteIfExists(segment.file);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Lyrics store compaction of segment {} failed: {}", segment.id, e.getMessage());
+            }
+        }
+    }
+    
+    private Path segmentFile(int id) {
+        return directory.resolve(String.format("%08d%s", id, SEGMENT_SUFFIX));
+    }
+    
+    private static long location(int segmentId, int offset) {
+        return ((long) segmentId << 32) | (offset & 0xFFFFFFFFL);
+    }
+    
+    private static int segmentId(long location) {
+        return (int) (location >>> 32);
+    }
+    
+    private static int offset(long location) {
+        return (int) location;
+    }
+    
+    private static byte[] encode(List<String> keys, String title, String artist, StoredLyrics lyrics) {
+        // Key count and key lengths are shorts on disk; a wrapped one would make the record unreadable
+        if (keys.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many keys: " + keys.size());
+        }
+        List<byte[]> encodedKeys = new ArrayList<>(keys.size());
+        int size = 2;
+        for (String key : keys) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Key of " + bytes.length + " bytes is too long");
+            }
+            encodedKeys.add(bytes);
+            size += 2 + bytes.length;
+        }
+        byte[][] fields = {
+            utf8(title), utf8(artist),
+            utf8(lyrics.source()), utf8(lyrics.original()), utf8(lyrics.hiragana()), utf8(lyrics.romaji())
+        };
+        for (byte[] field : fields) {
+            size += 4 + (field == null ? 0 : field.length);
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putShort((short) encodedKeys.size());
+        for (byte[] key : encodedKeys) {
+            buffer.putShort((short) key.length);
+            buffer.put(key);
+        }
+        for (byte[] field : fields) {
+            if (field == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(field.length);
+                buffer.put(field);
+            }
+        }
+        return buffer.array();
+    }
+    
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    public record StoredLyrics(String original, String source, String hiragana, String romaji) {
+        
+        public boolean isProcessed() {
+            return hiragana != null && romaji != null;
+        }
+    }
+    
+    // A record as written: its keys and the title and artist as given, not normalized
+    public record Entry(List<String> keys, String title, String artist, StoredLyrics lyrics) {}
+    
+    private static final class Segment {
+        private final int id;
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final boolean sealed;
+        private final AtomicInteger keysWritten;
+        private final AtomicInteger superseded;
+        private volatile int position;
+        
+        private Segment(int id, Path file, FileChannel channel, MappedByteBuffer buffer, int capacity,
+                        boolean sealed, int position, AtomicInteger keysWritten, AtomicInteger superseded) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = capacity;
+            this.sealed = sealed;
+            this.position = position;
+            this.keysWritten = keysWritten;
+            this.superseded = superseded;
+        }
+        
+        static Segment create(int id, Path file, int capacity) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            return new Segment(id, file, channel, buffer, capacity, false, 0, new AtomicInteger(), new AtomicInteger());
+        }
+        
+        // Opens an existing segment read-only, trimming anything past the last intact record
+        static Segment seal(int id, Path file) throws IOException {
+            int end;
+            try (FileChannel scanChannel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer scanBuffer = scanChannel.map(FileChannel.MapMode.READ_ONLY, 0, scanChannel.size());
+                end = validEnd(scanBuffer, (int) scanChannel.size());
+                scanChannel.truncate(end);
+            }
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+            AtomicInteger keysWritten = new AtomicInteger();
+            Segment segment = new Segment(id, file, channel, buffer, end, true, end, keysWritten, new AtomicInteger());
+            segment.scan((location, keys) -> keysWritten.addAndGet(keys.size()));
+            return segment;
+        }
+        
+        // Flushes and reopens the active segment read-only at its written length
+        Segment sealInPlace() throws IOException {
+            buffer.force();
+            close();
+            try (FileChannel trim = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                trim.truncate(position);
+            }
+            FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ);
+            MappedByteBuffer readBuffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, position);
+            return new Segment(id, file, readChannel, readBuffer, position, true, position, keysWritten, superseded);
+        }
+        
+        private static int validEnd(ByteBuffer buffer, int limit) {
+            int offset = 0;
+            while (offset + HEADER_BYTES <= limit) {
+                int length = buffer.getInt(offset);
+                if (length <= 0 || offset + HEADER_BYTES + length > limit) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(offset + HEADER_BYTES, payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                    break;
+                }
+                offset += HEADER_BYTES + length;
+            }
+            return offset;
+        }
+        
+        void scan(BiConsumer<Long, List<String>> visitor) {
+            int end = position;
+            int offset = 0;
+            while (offset + HEADER_BYTES <= end) {
+                int length = buffer.getInt(offset);
+                if (length <= 0) {
+                    break;
+                }
+                visitor.accept(location(id, offset), readKeys(offset + HEADER_BYTES));
+                offset += HEADER_BYTES + length;
+            }
+        }
+        
+        private List<String> readKeys(int at) {
+            int count = buffer.getShort(at);
+            List<String> keys = new ArrayList<>(count);
+            int cursor = at + 2;
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getShort(cursor);
+                keys.add(readString(cursor + 2, length));
+                cursor += 2 + length;
+            }
+            return keys;
+        }
+        
+        Entry read(int offset) {
+            List<String> keys = readKeys(offset + HEADER_BYTES);
+            int cursor = offset + HEADER_BYTES + 2;
+            for (int i = 0; i < keys.size(); i++) {
+                cursor += 2 + buffer.getShort(cursor);
+            }
+            String[] fields = new String[6];
+            for (int i = 0; i < fields.length; i++) {
+                int length = buffer.getInt(cursor);
+                cursor += 4;
+                if (length >= 0) {
+                    fields[i] = readString(cursor, length);
+                    cursor += length;
+                }
+            }
+            return new Entry(keys, fields[0], fields[1], new StoredLyrics(fields[3], fields[2], fields[4], fields[5]));
+        }
+        
+        private String readString(int at, int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(at, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Mapping stays valid until collected
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.kashifind.service.lyrics;
+
+import com.kashifind.dto.Lyrics;
+import com.kashifind.service.SpotifyTokenManager;
+import com.kashifind.service.UpstreamClients;
+import com.kashifind.service.UpstreamJson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+// Spotify's lyrics endpoint (available in some regions)
+// Note: This endpoint may not be publicly available in all regions
+@Component
+public class SpotifyLyricsProvider implements LyricsProvider {
+    
+    private final SpotifyTokenManager spotifyTokens;
+    private final WebClient webClient;
+    private final int priority;
+    private final String baseUrl;
+    
+    public SpotifyLyricsProvider(SpotifyTokenManager spotifyTokens,
+                                 @Value("${app.lyrics.providers.spotify.priority:0}") int priority,
+                                 @Value("${app.lyrics.providers.spotify.url:https://spclient.wg.spotify.com}") String baseUrl,
+                                 UpstreamClients clients) {
+        this.spotifyTokens = spotifyTokens;
+        this.baseUrl = baseUrl;
+        this.webClient = clients.client("spotify-lyrics", baseUrl, spotifyTokens.isConfigured());
+        this.priority = priority;
+    }
+    
+    @Override
+    public String name() {
+        return "spotify";
+    }
+    
+    @Override
+    public int priority() {
+        return priority;
+    }
+    
+    @Override
+    public boolean supports(LyricsQuery query) {
+        return query.hasSpotifyTrackId() && spotifyTokens.isConfigured();
+    }
+    
+    @Override
+    public Mono<Lyrics> fetch(LyricsQuery query) {
+        String lyricsUrl = String.format("%s/lyrics/v1/track/%s", baseUrl, query.spotifyTrackId());
+        
+        return spotifyTokens.currentToken()
+            .flatMap(token -> UpstreamJson.decode(webClient.get()
+                    .uri(lyricsUrl)
+                    .header("Authorization", "Bearer " + token)
+                    .retrieve(),
+                parser -> UpstreamJson.lyrics(parser, "spotify")));
+    }
+}
@@ -0,0 +1,92 @@
+package com.kashifind.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimitTest {
+    
+    private static final long MS = 1_000_000;
+    
+    @Test
+    void growsWhileCallsReturnAtNoLoadSpeedAndTheLimitIsInUse() {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 1, 10, 2.0, 0.5);
+        
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(System.nanoTime(), 10 * MS, limit.current());
+        }
+        
+        assertThat(limit.current()).isEqualTo(10);
+    }
+    
+    @Test
+    void doesNotGrowWhileMostlyIdle() {
+        AdaptiveLimit limit = new AdaptiveLimit(8, 1, 20, 2.0, 0.5);
+        
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(System.nanoTime(), 10 * MS, 1);
+        }
+        
+        assertThat(limit.current()).isEqualTo(8);
+    }
+    
+    @Test
+    void slowCallCutsByBackoff() {
+        AdaptiveLimit limit = new AdaptiveLimit(8, 1, 20, 2.0, 0.5);
+        limit.onSample(startAfterLastCut(), 10 * MS, 0);
+        
+        limit.onSample(startAfterLastCut(), 50 * MS, 0);
+        
+        assertThat(limit.current()).isEqualTo(4);
+    }
+    
+    @Test
+    void callsStartedBeforeACutCannotCutAgain() {
+        AdaptiveLimit limit = new AdaptiveLimit(8, 1, 20, 2.0, 0.5);
+        long start = startAfterLastCut();
+        
+        limit.onDrop(start);
+        limit.onDrop(start);
+        assertThat(limit.current()).isEqualTo(4);
+        
+        limit.onDrop(startAfterLastCut());
+        assertThat(limit.current()).isEqualTo(2);
+    }
+    
+    @Test
+    void staysAtOrAboveMin() {
+        AdaptiveLimit limit = new AdaptiveLimit(8, 3, 20, 2.0, 0.5);
+        
+        for (int i = 0; i < 10; i++) {
+            limit.onDrop(startAfterLastCut());
+        }
+        
+        assertThat(limit.current()).isEqualTo(3);
+    }
+    
+    @Test
+    void initialIsClampedIntoRange() {
+        assertThat(new AdaptiveLimit(100, 2, 16, 2.0, 0.9).current()).isEqualTo(16);
+        assertThat(new AdaptiveLimit(0, 2, 16, 2.0, 0.9).current()).isEqualTo(2);
+    }
+    
+    @Test
+    void fixedLimitNeverMoves() {
+        AdaptiveLimit limit = AdaptiveLimit.fixed(5);
+        
+        limit.onDrop(startAfterLastCut());
+        limit.onSample(startAfterLastCut(), 10 * MS, 5);
+        
+        assertThat(limit.current()).isEqualTo(5);
+    }
+    
+    // Only calls started after the previous cut count; waiting for the clock to tick makes
+    // sure this one did
+    private static long startAfterLastCut() {
+        long now = System.nanoTime();
+        while (System.nanoTime() == now) {
+            Thread.onSpinWait();
+        }
+        return System.nanoTime();
+    }
+}
@@ -0,0 +1,106 @@
+package com.kashifind.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+    
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, Duration.ofMinutes(1), 1);
+        
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+        
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+    
+    @Test
+    void opensAtFailureRateAndRefusesCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, Duration.ofMinutes(1), 1);
+        
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        breaker.onFailure();
+        
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+    
+    @Test
+    void oldOutcomesLeaveTheWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, Duration.ofMinutes(1), 1);
+        
+        breaker.onFailure();
+        for (int i = 0; i < 6; i++) {
+            breaker.onSuccess();
+        }
+        // The first failure has been pushed out, so this is 1 failure in 4, not 2 in 7
+        breaker.onFailure();
+        
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+    
+    @Test
+    void halfOpenAdmitsOnlyTrialCallsAndClosesWhenTheyAllSucceed() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, Duration.ZERO, 2);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onSuccess();
+        
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        // A fresh window: one failure is below minimum-calls again
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+    
+    @Test
+    void failedTrialReopens() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1, 1.0, Duration.ZERO, 2);
+        breaker.onFailure();
+        
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onSuccess();
+        breaker.onFailure();
+        
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+    
+    @Test
+    void ignoredTrialFreesItsSlot() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1, 1.0, Duration.ZERO, 1);
+        breaker.onFailure();
+        
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        breaker.onIgnored();
+        
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+    
+    @Test
+    void stillOpenBeforeOpenForElapses() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1, 1.0, Duration.ofMinutes(1), 1);
+        breaker.onFailure();
+        
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
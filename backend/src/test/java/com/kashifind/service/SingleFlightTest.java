@@ -0,0 +1,100 @@
+package com.kashifind.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+    
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+    
+    @Test
+    void concurrentCallersShareOneCall() {
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<String> upstream = Sinks.one();
+        AtomicReference<String> first = new AtomicReference<>();
+        AtomicReference<String> second = new AtomicReference<>();
+        
+        flights.execute("q", () -> {
+            calls.incrementAndGet();
+            return upstream.asMono();
+        }).subscribe(first::set);
+        flights.execute("q", () -> {
+            calls.incrementAndGet();
+            return upstream.asMono();
+        }).subscribe(second::set);
+        assertThat(flights.inFlightCount()).isEqualTo(1);
+        
+        upstream.tryEmitValue("result");
+        
+        assertThat(calls).hasValue(1);
+        assertThat(first).hasValue("result");
+        assertThat(second).hasValue("result");
+        assertThat(flights.inFlightCount()).isZero();
+    }
+    
+    @Test
+    void differentKeysDoNotShare() {
+        AtomicInteger calls = new AtomicInteger();
+        
+        flights.execute("a", () -> Mono.fromCallable(() -> "a" + calls.incrementAndGet())).block();
+        flights.execute("b", () -> Mono.fromCallable(() -> "b" + calls.incrementAndGet())).block();
+        
+        assertThat(calls).hasValue(2);
+    }
+    
+    @Test
+    void completedCallIsNotReused() {
+        AtomicInteger calls = new AtomicInteger();
+        
+        String first = flights.execute("q", () -> Mono.fromCallable(() -> "call " + calls.incrementAndGet())).block();
+        String second = flights.execute("q", () -> Mono.fromCallable(() -> "call " + calls.incrementAndGet())).block();
+        
+        assertThat(first).isEqualTo("call 1");
+        assertThat(second).isEqualTo("call 2");
+    }
+    
+    @Test
+    void errorsReachCallersAndAreNotRemembered() {
+        assertThatThrownBy(() -> flights.execute("q", () -> Mono.<String>error(new IllegalStateException("down"))).block())
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("down");
+        assertThat(flights.inFlightCount()).isZero();
+        
+        assertThat(flights.execute("q", () -> Mono.just("up")).block()).isEqualTo("up");
+    }
+    
+    @Test
+    void emptyResultCompletesEveryCallerEmpty() {
+        Mono<String> shared = flights.execute("q", Mono::empty);
+        
+        assertThat(shared.blockOptional(Duration.ofSeconds(1))).isEmpty();
+    }
+    
+    @Test
+    void upstreamIsCancelledOnlyOnceEveryCallerHasGone() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Sinks.One<String> upstream = Sinks.one();
+        Mono<String> call = upstream.asMono().doOnCancel(() -> cancelled.set(true));
+        
+        Disposable first = flights.execute("q", () -> call).subscribe();
+        Disposable second = flights.execute("q", () -> call).subscribe();
+        
+        first.dispose();
+        assertThat(cancelled).isFalse();
+        assertThat(flights.inFlightCount()).isEqualTo(1);
+        
+        second.dispose();
+        assertThat(cancelled).isTrue();
+        assertThat(flights.inFlightCount()).isZero();
+    }
+}
@@ -0,0 +1,133 @@
+package com.kashifind.service.catalog;
+
+import com.kashifind.dto.Song;
+import com.kashifind.service.ExternalAPIsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogIndexTest {
+    
+    private static final String NDJSON = String.join("\n",
+        "{\"id\":\"yoru\",\"title\":\"夜に駆ける\",\"artist\":\"YOASOBI\",\"album\":\"THE BOOK\",\"genre\":\"J-Pop\","
+            + "\"release_date\":\"2019-12-15\",\"duration_ms\":261000,\"popularity\":90}",
+        "{\"id\":\"gunjo\",\"title\":\"群青\",\"artist\":\"YOASOBI\",\"genre\":\"J-Pop\",\"year\":2020,\"popularity\":80}",
+        "not json",
+        "{\"id\":\"lemon\",\"title\":\"Lemon\",\"artist\":\"米津玄師\",\"genre\":\"J-Rock\",\"year\":2018,\"popularity\":95}",
+        "{\"id\":\"ai\",\"name\":\"愛にできることはまだあるかい\",\"artist\":\"RADWIMPS\",\"popularity\":70}",
+        "{\"id\":\"untitled\",\"artist\":\"Nobody\"}",
+        "");
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void importedTracksRoundTripThroughTheIndex() throws IOException {
+        CatalogIndex index = importNdjson();
+        
+        assertThat(index.size()).isEqualTo(4);
+        Song yoru = only(index.search("夜に駆ける", 0, 10, null, null));
+        assertThat(yoru.id()).isEqualTo("yoru");
+        assertThat(yoru.title()).isEqualTo("夜に駆ける");
+        assertThat(yoru.artist()).isEqualTo("YOASOBI");
+        assertThat(yoru.album()).isEqualTo("THE BOOK");
+        assertThat(yoru.genre()).isEqualTo("J-Pop");
+        assertThat(yoru.year()).isEqualTo("2019");
+        assertThat(yoru.duration()).isEqualTo(261);
+        assertThat(index.genres()).containsExactly("J-Pop", "J-Rock");
+        assertThat(index.years()).containsExactly(2020, 2019, 2018);
+    }
+    
+    @Test
+    void matchesEveryQueryTermInPopularityOrder() throws IOException {
+        CatalogIndex index = importNdjson();
+        
+        assertThat(ids(index.search("yoasobi", 0, 10, null, null))).containsExactly("yoru", "gunjo");
+        assertThat(ids(index.search("ＹＯＡＳＯＢＩ 群青", 0, 10, null, null))).containsExactly("gunjo");
+        assertThat(ids(index.search("lemon", 0, 10, null, null))).containsExactly("lemon");
+        assertThat(index.search("yoasobi lemon", 0, 10, null, null).total()).isZero();
+        assertThat(index.search("", 0, 10, null, null).total()).isZero();
+    }
+    
+    @Test
+    void oneCharacterQueriesMatchInsideLongerRuns() throws IOException {
+        CatalogIndex index = importNdjson();
+        
+        assertThat(ids(index.search("夜", 0, 10, null, null))).containsExactly("yoru");
+        assertThat(ids(index.search("愛", 0, 10, null, null))).containsExactly("ai");
+        assertThat(ids(index.search("駆", 0, 10, null, null))).containsExactly("yoru");
+        assertThat(ids(index.search("群", 0, 10, null, null))).containsExactly("gunjo");
+    }
+    
+    @Test
+    void pagesByOffsetAndReportsTheFullTotal() throws IOException {
+        CatalogIndex index = importNdjson();
+        
+        ExternalAPIsService.SearchPage second = index.search("yoasobi", 1, 1, null, null);
+        
+        assertThat(second.total()).isEqualTo(2);
+        assertThat(ids(second)).containsExactly("gunjo");
+        assertThat(index.search("yoasobi", 2, 1, null, null).items()).isEmpty();
+    }
+    
+    @Test
+    void filtersByGenreAndYear() throws IOException {
+        CatalogIndex index = importNdjson();
+        
+        assertThat(ids(index.search("yoasobi", 0, 10, "j-pop", 2020))).containsExactly("gunjo");
+        assertThat(ids(index.search("yoasobi", 0, 10, "J-Rock", null))).isEmpty();
+    }
+    
+    @Test
+    void importsCsvWithQuotedFields() throws IOException {
+        Path dump = directory.resolve("tracks.csv");
+        Files.writeString(dump, String.join("\n",
+            "id,title,artist,album,genre,year,duration,popularity",
+            "pretender,Pretender,Official髭男dism,\"Traveler, Deluxe\",J-Pop,2019,326,88",
+            "marigold,マリーゴールド,あいみょん,\"\"\"Ai\"\" Best\",J-Pop,2018,304,85"), StandardCharsets.UTF_8);
+        Path indexFile = directory.resolve("catalog.idx");
+        
+        assertThat(new CatalogImporter().importDump(dump, indexFile)).isEqualTo(2);
+        CatalogIndex index = CatalogIndex.open(indexFile);
+        
+        Song pretender = only(index.search("pretender", 0, 10, null, null));
+        assertThat(pretender.album()).isEqualTo("Traveler, Deluxe");
+        assertThat(pretender.duration()).isEqualTo(326);
+        assertThat(only(index.search("マリー", 0, 10, null, null)).album()).isEqualTo("\"Ai\" Best");
+    }
+    
+    @Test
+    void rejectsFilesInAnotherFormat() throws IOException {
+        Path indexFile = directory.resolve("old.idx");
+        Files.write(indexFile, new byte[] {0x4B, 0x46, 0x43, 0x31, 0, 0, 0, 0});
+        
+        assertThat(CatalogIndex.isCurrentFormat(indexFile)).isFalse();
+        assertThatThrownBy(() -> CatalogIndex.open(indexFile)).isInstanceOf(IOException.class);
+    }
+    
+    private CatalogIndex importNdjson() throws IOException {
+        Path dump = directory.resolve("tracks.ndjson");
+        Files.writeString(dump, NDJSON, StandardCharsets.UTF_8);
+        Path indexFile = directory.resolve("catalog.idx");
+        new CatalogImporter().importDump(dump, indexFile);
+        assertThat(CatalogIndex.isCurrentFormat(indexFile)).isTrue();
+        return CatalogIndex.open(indexFile);
+    }
+    
+    private static Song only(ExternalAPIsService.SearchPage page) {
+        assertThat(page.items()).hasSize(1);
+        return page.items().get(0);
+    }
+    
+    private static List<String> ids(ExternalAPIsService.SearchPage page) {
+        return page.items().stream().map(Song::id).toList();
+    }
+}
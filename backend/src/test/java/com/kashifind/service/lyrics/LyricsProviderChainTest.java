@@ -0,0 +1,84 @@
+package com.kashifind.service.lyrics;
+
+import com.kashifind.dto.Lyrics;
+import com.kashifind.service.UpstreamGuards;
+import com.kashifind.service.UpstreamMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LyricsProviderChainTest {
+    
+    private static final LyricsQuery QUERY = new LyricsQuery("Lemon", "米津玄師", null);
+    
+    @Test
+    void higherPriorityResultWinsOverAFasterLowerPriorityOne() {
+        LyricsProviderChain chain = chain(Duration.ofMillis(10), Duration.ofSeconds(5),
+            provider("first", 0, Mono.delay(Duration.ofMillis(300)).thenReturn(lyrics("first"))),
+            provider("second", 10, Mono.just(lyrics("second"))));
+        
+        assertThat(chain.fetch(QUERY).block()).isEqualTo(lyrics("first"));
+    }
+    
+    @Test
+    void lowerPriorityResultIsUsedWhenTheOnesAheadHaveNone() {
+        LyricsProviderChain chain = chain(Duration.ofMillis(10), Duration.ofSeconds(5),
+            provider("first", 0, Mono.delay(Duration.ofMillis(100)).then(Mono.empty())),
+            provider("second", 10, Mono.just(lyrics("second"))));
+        
+        assertThat(chain.fetch(QUERY).block()).isEqualTo(lyrics("second"));
+    }
+    
+    @Test
+    void lowerPriorityResultIsUsedWhenTheOnesAheadRunOutOfTime() {
+        LyricsProviderChain chain = chain(Duration.ofMillis(10), Duration.ofMillis(300),
+            provider("first", 0, Mono.never()),
+            provider("second", 10, Mono.just(lyrics("second"))));
+        
+        assertThat(chain.fetch(QUERY).block(Duration.ofSeconds(5))).isEqualTo(lyrics("second"));
+    }
+    
+    @Test
+    void nothingOutlivesTheDeadline() {
+        LyricsProviderChain chain = chain(Duration.ofMillis(10), Duration.ofMillis(200),
+            provider("first", 0, Mono.never()),
+            provider("second", 10, Mono.never()));
+        
+        assertThat(chain.fetch(QUERY).block(Duration.ofSeconds(5))).isNull();
+    }
+    
+    private static LyricsProviderChain chain(Duration hedgeDelay, Duration deadline, LyricsProvider... providers) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UpstreamGuards guards = new UpstreamGuards(new MockEnvironment(), new UpstreamMetrics(registry), registry);
+        return new LyricsProviderChain(List.of(providers), hedgeDelay, deadline, guards);
+    }
+    
+    private static Lyrics lyrics(String source) {
+        return new Lyrics("夢ならばどれほどよかったでしょう", source);
+    }
+    
+    private static LyricsProvider provider(String name, int priority, Mono<Lyrics> result) {
+        return new LyricsProvider() {
+            @Override
+            public String name() {
+                return name;
+            }
+            
+            @Override
+            public int priority() {
+                return priority;
+            }
+            
+            @Override
+            public Mono<Lyrics> fetch(LyricsQuery query) {
+                return result;
+            }
+        };
+    }
+}
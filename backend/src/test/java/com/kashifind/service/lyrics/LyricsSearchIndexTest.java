@@ -0,0 +1,180 @@
+package com.kashifind.service.lyrics;
+
+import com.kashifind.service.JapaneseTextProcessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LyricsSearchIndexTest {
+    
+    private static JapaneseTextProcessor japaneseProcessor;
+    
+    @TempDir
+    Path directory;
+    
+    private final List<LyricsStore> stores = new ArrayList<>();
+    private final List<LyricsSearchIndex> indexes = new ArrayList<>();
+    
+    @BeforeAll
+    static void loadDictionary() {
+        japaneseProcessor = new JapaneseTextProcessor(1_000_000, 1, 20_000, 0, new SimpleMeterRegistry());
+    }
+    
+    @AfterAll
+    static void stopProcessor() {
+        japaneseProcessor.shutdown();
+    }
+    
+    @AfterEach
+    void close() {
+        indexes.forEach(LyricsSearchIndex::stop);
+        stores.forEach(LyricsStore::close);
+    }
+    
+    @Test
+    void findsSongsByKanjiOrKanaReading() {
+        LyricsSearchIndex index = index(store(false));
+        
+        index.add("夜に駆ける", "YOASOBI", "yoru", "沈むように溶けてゆくように\n二人だけの空が広がる夜に");
+        index.add("Lemon", "米津玄師", "lemon", "夢ならばどれほどよかったでしょう");
+        awaitSize(index, 2);
+        
+        assertThat(titles(index.search("溶けてゆく", 10))).containsExactly("夜に駆ける");
+        assertThat(titles(index.search("とけてゆく", 10))).containsExactly("夜に駆ける");
+        assertThat(titles(index.search("ゆめならば", 10))).containsExactly("Lemon");
+        assertThat(index.search("さくらさく", 10)).isEmpty();
+    }
+    
+    @Test
+    void postingListsDecodeAcrossMultiByteDeltas() {
+        LyricsSearchIndex index = index(store(false));
+        
+        // The shared grams' posting lists get deltas of 1, 300 and 20000 documents, i.e. one-,
+        // two- and three-byte varints
+        index.add("First", "Artist", null, "あおぞらのしたで");
+        index.add("Second", "Artist", null, "あおぞらのしたで");
+        for (int i = 0; i < 299; i++) {
+            index.add("Filler " + i, "Artist", null, "ゆうやけ");
+        }
+        index.add("Third", "Artist", null, "あおぞらのしたで");
+        for (int i = 299; i < 20_299; i++) {
+            index.add("Filler " + i, "Artist", null, "ゆうやけ");
+        }
+        index.add("Fourth", "Artist", null, "あおぞらのしたで");
+        awaitSize(index, 20_303);
+        
+        assertThat(titles(index.search("あおぞらのした", 10))).containsExactly("Fourth", "Third", "Second", "First");
+        assertThat(index.search("ゆうやけ", 20_299)).hasSize(20_299);
+    }
+    
+    @Test
+    void readdingASongReplacesItsLyrics() {
+        LyricsSearchIndex index = index(store(false));
+        
+        index.add("Song", "Artist", null, "はじめのかし");
+        awaitSize(index, 1);
+        index.add("Song", "Artist", null, "あたらしいかし");
+        awaitIndexed(index, "あたらしい");
+        
+        assertThat(index.search("はじめの", 10)).isEmpty();
+        assertThat(titles(index.search("あたらしい", 10))).containsExactly("Song");
+        assertThat(index.size()).isEqualTo(1);
+    }
+    
+    @Test
+    void rebuildDropsReplacedSongsAndKeepsTheRestSearchable() {
+        LyricsSearchIndex index = index(store(false));
+        
+        index.add("First", "Artist", null, "あおぞらのしたで");
+        index.add("Song", "Artist", null, "かしのいちばんめ");
+        index.add("Last", "Artist", null, "ゆうやけのそらへ");
+        // Each replacement leaves a tombstone; the fourth makes them more than half of all ids
+        index.add("Song", "Artist", null, "かしのにばんめ");
+        index.add("Song", "Artist", null, "かしのさんばんめ");
+        index.add("Song", "Artist", null, "かしのよんばんめ");
+        index.add("Song", "Artist", null, "かしのごばんめ");
+        index.add("After", "Artist", null, "ほしぞらのうた");
+        awaitIndexed(index, "ほしぞらの");
+        
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(titles(index.search("あおぞらの", 10))).containsExactly("First");
+        assertThat(titles(index.search("ゆうやけの", 10))).containsExactly("Last");
+        assertThat(titles(index.search("かしのごばんめ", 10))).containsExactly("Song");
+        assertThat(index.search("かしのよんばんめ", 10)).isEmpty();
+        assertThat(titles(index.search("ほしぞらの", 10))).containsExactly("After");
+        assertThat(titles(index.search("ぞらのうた", 10))).containsExactly("After");
+    }
+    
+    @Test
+    void queriesNeedMinMatchOfTheirGrams() {
+        LyricsSearchIndex index = index(store(false));
+        
+        index.add("Song", "Artist", null, "きみのなまえ");
+        awaitSize(index, 1);
+        
+        // 3 of the query's 4 trigrams are in the song: 0.75 is enough, 1 of 4 is not
+        assertThat(index.search("きみのなまい", 10)).hasSize(1);
+        assertThat(index.search("きみのかわり", 10)).isEmpty();
+    }
+    
+    @Test
+    void rebuildsFromTheStoreWithDisplayTitlesAndArtists() {
+        LyricsStore store = store(true);
+        store.put("ＴＨＥ Title | Part 2", "Artist|Band", "track1",
+            new LyricsStore.StoredLyrics("ふるいうたをうたう", "store", null, null));
+        store.close();
+        
+        LyricsSearchIndex index = index(store(true));
+        index.start();
+        awaitSize(index, 1);
+        
+        Map<String, Object> result = index.search("ふるいうた", 10).get(0);
+        assertThat(result).containsEntry("title", "ＴＨＥ Title | Part 2")
+            .containsEntry("artist", "Artist|Band")
+            .containsEntry("spotifyTrackId", "track1");
+    }
+    
+    private LyricsStore store(boolean enabled) {
+        LyricsStore store = new LyricsStore(enabled, directory.toString(), 1 << 20, Duration.ofHours(1), 0.5);
+        store.open();
+        stores.add(store);
+        return store;
+    }
+    
+    private LyricsSearchIndex index(LyricsStore store) {
+        LyricsSearchIndex index = new LyricsSearchIndex(japaneseProcessor, store, true, 0.75, 100_000, 0.5);
+        indexes.add(index);
+        return index;
+    }
+    
+    // Indexing runs on a background thread
+    private static void awaitSize(LyricsSearchIndex index, int size) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+        while (index.size() < size && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(index.size()).isEqualTo(size);
+    }
+    
+    private static void awaitIndexed(LyricsSearchIndex index, String query) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+        while (index.search(query, 1).isEmpty() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+    
+    private static List<Object> titles(List<Map<String, Object>> results) {
+        return results.stream().map(result -> result.get("title")).toList();
+    }
+}
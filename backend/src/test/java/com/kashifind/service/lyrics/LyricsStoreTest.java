@@ -0,0 +1,222 @@
+package com.kashifind.service.lyrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class LyricsStoreTest {
+    
+    private static final int SEGMENT_SIZE = 1024;
+    
+    @TempDir
+    Path directory;
+    
+    private final List<LyricsStore> opened = new ArrayList<>();
+    
+    @AfterEach
+    void closeStores() {
+        opened.forEach(LyricsStore::close);
+    }
+    
+    @Test
+    void findsByTrackIdAndByTitleAndArtist() {
+        LyricsStore store = open();
+        LyricsStore.StoredLyrics lyrics = new LyricsStore.StoredLyrics("夜に駆ける", "lyrics-ovh", null, null);
+        
+        store.put("夜に駆ける", "YOASOBI", "track1", lyrics);
+        
+        assertThat(store.find("ignored", "ignored", "track1")).contains(lyrics);
+        // Keys are normalized, so case and width don't matter
+        assertThat(store.find("夜に駆ける", "ｙｏａｓｏｂｉ", null)).contains(lyrics);
+        assertThat(store.find("夜に駆ける", "YOASOBI", "other")).contains(lyrics);
+        assertThat(store.find("群青", "YOASOBI", null)).isEmpty();
+    }
+    
+    @Test
+    void laterWriteReplacesEarlierUnderEveryKey() {
+        LyricsStore store = open();
+        store.put("Lemon", "米津玄師", "track1", new LyricsStore.StoredLyrics("夢ならばどれほど", "spotify", null, null));
+        
+        LyricsStore.StoredLyrics processed =
+            new LyricsStore.StoredLyrics("夢ならばどれほど", "spotify", "ゆめならばどれほど", "yume naraba dorehodo");
+        store.put("Lemon", "米津玄師", "track1", processed);
+        
+        assertThat(store.find("Lemon", "米津玄師", null)).contains(processed);
+        assertThat(store.find(null, null, "track1")).contains(processed);
+        assertThat(processed.isProcessed()).isTrue();
+    }
+    
+    @Test
+    void updateKeepsTheTrackIdsTheRecordWasFiledUnder() {
+        LyricsStore store = open();
+        store.put("Lemon", "米津玄師", "track1", new LyricsStore.StoredLyrics("夢ならばどれほど", "spotify", null, null));
+        
+        LyricsStore.StoredLyrics processed =
+            new LyricsStore.StoredLyrics("夢ならばどれほど", "spotify", "ゆめならばどれほど", "yume naraba dorehodo");
+        store.update("Lemon", "米津玄師", processed);
+        store.update("Other", "Someone", new LyricsStore.StoredLyrics("other", "store", null, null));
+        
+        assertThat(store.find(null, null, "track1")).contains(processed);
+        assertThat(store.find("Lemon", "米津玄師", null)).contains(processed);
+        assertThat(store.size()).isEqualTo(3);
+    }
+    
+    @Test
+    void reopenRecoversEveryRecordWithItsDisplayNames() {
+        LyricsStore store = open();
+        LyricsStore.StoredLyrics lyrics = new LyricsStore.StoredLyrics("歌詞", null, "かし", "kashi");
+        store.put("Title | Part 2", "Artist|Band", "track1", lyrics);
+        store.put("Other", "Someone", null, new LyricsStore.StoredLyrics("other", "store", null, null));
+        store.close();
+        
+        LyricsStore reopened = open();
+        
+        assertThat(reopened.find("Title | Part 2", "Artist|Band", null)).contains(lyrics);
+        assertThat(reopened.find(null, null, "track1")).contains(lyrics);
+        List<LyricsStore.Entry> entries = new ArrayList<>();
+        reopened.forEach(entries::add);
+        assertThat(entries).extracting(LyricsStore.Entry::title, LyricsStore.Entry::artist)
+            .containsExactly(tuple("Title | Part 2", "Artist|Band"), tuple("Other", "Someone"));
+    }
+    
+    @Test
+    void recordFailingItsChecksumEndsTheSegmentOnRecovery() throws IOException {
+        LyricsStore store = open();
+        store.put("First", "Artist", null, new LyricsStore.StoredLyrics("first", "store", null, null));
+        store.put("Second", "Artist", null, new LyricsStore.StoredLyrics("second", "store", null, null));
+        store.put("Third", "Artist", null, new LyricsStore.StoredLyrics("third", "store", null, null));
+        store.close();
+        
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int second = 8 + readInt(channel, 0);
+            // Flip the last byte of the second record's payload
+            int lastByte = second + 8 + readInt(channel, second) - 1;
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, lastByte);
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) (one.get(0) ^ 0xFF)}), lastByte);
+        }
+        
+        LyricsStore reopened = open();
+        
+        assertThat(reopened.find("First", "Artist", null)).isPresent();
+        assertThat(reopened.find("Second", "Artist", null)).isEmpty();
+        assertThat(reopened.find("Third", "Artist", null)).isEmpty();
+        assertThat(Files.size(segment)).isLessThan(SEGMENT_SIZE);
+    }
+    
+    @Test
+    void tornWriteReadsAsEndOfData() throws IOException {
+        LyricsStore store = open();
+        store.put("First", "Artist", null, new LyricsStore.StoredLyrics("first", "store", null, null));
+        store.close();
+        
+        // A record whose payload landed but whose length (written last) did not
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int end = 8 + readInt(channel, 0);
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 0, 1, 2, 3, 4, 5, 6, 7, 8}), end);
+        }
+        
+        LyricsStore reopened = open();
+        
+        assertThat(reopened.find("First", "Artist", null)).isPresent();
+        assertThat(reopened.size()).isEqualTo(1);
+    }
+    
+    @Test
+    void compactionReclaimsSupersededRecordsAndKeepsLiveOnes() {
+        LyricsStore store = open();
+        store.put("Kept", "Artist", "kept", new LyricsStore.StoredLyrics("kept", "store", null, null));
+        for (int i = 0; i < 40; i++) {
+            store.put("Rewritten", "Artist", null, new LyricsStore.StoredLyrics("version " + i, "store", null, null));
+        }
+        int before = segmentFiles().size();
+        assertThat(before).isGreaterThan(3);
+        
+        store.compact();
+        
+        assertThat(segmentFiles().size()).isLessThan(before);
+        assertThat(store.find("Kept", "Artist", null)).map(LyricsStore.StoredLyrics::original).contains("kept");
+        assertThat(store.find(null, null, "kept")).map(LyricsStore.StoredLyrics::original).contains("kept");
+        assertThat(store.find("Rewritten", "Artist", null)).map(LyricsStore.StoredLyrics::original)
+            .contains("version 39");
+        
+        store.close();
+        LyricsStore reopened = open();
+        
+        assertThat(reopened.find("Kept", "Artist", null)).map(LyricsStore.StoredLyrics::original).contains("kept");
+        assertThat(reopened.find("Rewritten", "Artist", null)).map(LyricsStore.StoredLyrics::original)
+            .contains("version 39");
+        List<LyricsStore.Entry> entries = new ArrayList<>();
+        reopened.forEach(entries::add);
+        assertThat(entries).hasSize(2);
+    }
+    
+    @Test
+    void oversizedKeyIsRejectedWithoutDamagingTheSegment() {
+        LyricsStore store = open(1 << 20);
+        String longTitle = "歌".repeat(20_000);
+        store.put("Before", "Artist", null, new LyricsStore.StoredLyrics("before", "store", null, null));
+        
+        store.put(longTitle, "Artist", null, new LyricsStore.StoredLyrics("long", "store", null, null));
+        store.put("After", "Artist", null, new LyricsStore.StoredLyrics("after", "store", null, null));
+        store.close();
+        
+        LyricsStore reopened = open(1 << 20);
+        
+        assertThat(reopened.find(longTitle, "Artist", null)).isEmpty();
+        assertThat(reopened.find("Before", "Artist", null)).isPresent();
+        assertThat(reopened.find("After", "Artist", null)).isPresent();
+    }
+    
+    @Test
+    void disabledStoreKeepsNothing() {
+        LyricsStore store = new LyricsStore(false, directory.toString(), SEGMENT_SIZE, Duration.ofHours(1), 0.5);
+        store.open();
+        opened.add(store);
+        
+        store.put("Title", "Artist", "track1", new LyricsStore.StoredLyrics("lyrics", "store", null, null));
+        
+        assertThat(store.find("Title", "Artist", "track1")).isEmpty();
+    }
+    
+    private LyricsStore open() {
+        return open(SEGMENT_SIZE);
+    }
+    
+    private LyricsStore open(int segmentSize) {
+        LyricsStore store = new LyricsStore(true, directory.toString(), segmentSize, Duration.ofHours(1), 0.5);
+        store.open();
+        opened.add(store);
+        return store;
+    }
+    
+    private List<Path> segmentFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".seg")).sorted().toList();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static int readInt(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        channel.read(buffer, position);
+        return buffer.getInt(0);
+    }
+}